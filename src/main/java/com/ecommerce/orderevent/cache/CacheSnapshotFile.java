@@ -0,0 +1,88 @@
+package com.ecommerce.orderevent.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-disk snapshot of cache entries: encoded values with the version they were read at.
+ * Layout: magic, write time (epoch millis), entry count, then per entry the key and version
+ * (length-prefixed UTF-8) and the value bytes (length-prefixed). Reads map the file instead of
+ * copying it through streams; writes go to a temporary file that is renamed into place, so a
+ * reader never sees a half-written snapshot.
+ */
+public final class CacheSnapshotFile {
+    private static final int MAGIC = 0x52435331; // "RCS1"
+
+    public record Entry(String key, String version, byte[] value) {}
+
+    public record Snapshot(long writtenAtMillis, List<Entry> entries) {}
+
+    private CacheSnapshotFile() {}
+
+    public static void write(Path path, Snapshot snapshot) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(MAGIC);
+                out.writeLong(snapshot.writtenAtMillis());
+                out.writeInt(snapshot.entries().size());
+                for (Entry entry : snapshot.entries()) {
+                    writeString(out, entry.key());
+                    writeString(out, entry.version());
+                    out.writeInt(entry.value().length);
+                    out.write(entry.value());
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static Snapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < Integer.BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a cache snapshot: " + path);
+            }
+            long writtenAt = buffer.getLong();
+            int count = buffer.getInt();
+            List<Entry> entries = new ArrayList<>(Math.max(0, Math.min(count, 10_000)));
+            for (int i = 0; i < count; i++) {
+                String key = readString(buffer);
+                String version = readString(buffer);
+                byte[] value = new byte[buffer.getInt()];
+                buffer.get(value);
+                entries.add(new Entry(key, version, value));
+            }
+            return new Snapshot(writtenAt, entries);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Truncated or corrupt cache snapshot: " + path, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.orderevent.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.io.IOException;
+
+/**
+ * Turns cached DTOs into the bytes stored in Redis and back. Implementations must keep reading
+ * every format they ever wrote, so switching the codec never turns live entries into misses.
+ */
+public interface CacheValueCodec {
+
+    byte[] encode(Object value) throws IOException;
+
+    <T> T decode(byte[] bytes, Class<T> type) throws IOException;
+
+    <T> T decode(byte[] bytes, TypeReference<T> type) throws IOException;
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.orderevent.cache;
+
+import com.ecommerce.orderevent.config.JacksonConfig;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes cache values as JSON or Smile (binary JSON: no quoting, back-references for repeated
+ * property names and short strings such as the restaurant embedded in every menu item), gzipped
+ * when larger than the threshold. Reads tell the formats apart by their first bytes: the gzip
+ * magic, the Smile header {@code :)\n}, or else plain JSON, which is what every entry written
+ * before this codec is. A zero or negative threshold disables compression.
+ */
+public class JacksonCacheValueCodec implements CacheValueCodec {
+
+    public enum Format {
+        JSON, SMILE;
+
+        public static Format of(String value) {
+            return value == null ? SMILE : valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private final ObjectMapper json;
+    private final ObjectMapper smile;
+    private final ObjectMapper writer;
+    private final int compressAboveBytes;
+
+    public JacksonCacheValueCodec(ObjectMapper json, Format format, int compressAboveBytes) {
+        this.json = json;
+        this.smile = JacksonConfig.newObjectMapper(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build());
+        this.writer = format == Format.SMILE ? smile : json;
+        this.compressAboveBytes = compressAboveBytes;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        byte[] bytes = writer.writeValueAsBytes(value);
+        return compressAboveBytes > 0 && bytes.length > compressAboveBytes ? gzip(bytes) : bytes;
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> type) throws IOException {
+        byte[] plain = gunzipIfCompressed(bytes);
+        return readerFor(plain).readValue(plain, type);
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, TypeReference<T> type) throws IOException {
+        byte[] plain = gunzipIfCompressed(bytes);
+        return readerFor(plain).readValue(plain, type);
+    }
+
+    private ObjectMapper readerFor(byte[] bytes) {
+        boolean isSmile = bytes.length >= 3
+                && bytes[0] == SmileConstants.HEADER_BYTE_1
+                && bytes[1] == SmileConstants.HEADER_BYTE_2
+                && bytes[2] == SmileConstants.HEADER_BYTE_3;
+        return isSmile ? smile : json;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzipIfCompressed(byte[] bytes) throws IOException {
+        boolean compressed = bytes.length >= 2
+                && (bytes[0] & 0xff) == GZIP_MAGIC_1
+                && (bytes[1] & 0xff) == GZIP_MAGIC_2;
+        if (!compressed) {
+            return bytes;
+        }
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.orderevent.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Current status per order, kept in Redis so status polling does not reach Postgres.
+ * Published transitions overwrite the entry ({@link #put}); a read that missed fills it only if
+ * it is still absent ({@link #putIfAbsent}), so a slow fill can never overwrite a newer status.
+ * Redis errors are logged and treated as a miss.
+ */
+@Component
+@Slf4j
+public class OrderStatusCache {
+    private static final String KEY_PREFIX = "order:status:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration ttl;
+    private final Counter hits;
+    private final Counter misses;
+
+    public OrderStatusCache(RedisTemplate<String, Object> redisTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${cache.order-status.ttl-hours:1}") long ttlHours) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.hits = Counter.builder("order.status.cache.hits")
+                .description("Status reads answered from the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("order.status.cache.misses")
+                .description("Status reads that fell back to Postgres")
+                .register(meterRegistry);
+    }
+
+    public Optional<String> get(Long orderId) {
+        String status = null;
+        try {
+            status = (String) redisTemplate.opsForValue().get(KEY_PREFIX + orderId);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to read cached status of order {}", orderId, e);
+        }
+        (status != null ? hits : misses).increment();
+        return Optional.ofNullable(status);
+    }
+
+    public void put(Long orderId, String status) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + orderId, status, ttl);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to cache status {} of order {}", status, orderId, e);
+        }
+    }
+
+    public void putIfAbsent(Long orderId, String status) {
+        try {
+            redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + orderId, status, ttl);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to cache status {} of order {}", status, orderId, e);
+        }
+    }
+
+    public void evict(Long orderId) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + orderId);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to evict cached status of order {}", orderId, e);
+        }
+    }
+}
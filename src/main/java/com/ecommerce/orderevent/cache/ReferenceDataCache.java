@@ -0,0 +1,103 @@
+package com.ecommerce.orderevent.cache;
+
+import com.ecommerce.orderevent.config.ReadYourWrites;
+import com.ecommerce.orderevent.entity.MenuItem;
+import com.ecommerce.orderevent.entity.Restaurant;
+import com.ecommerce.orderevent.entity.User;
+import com.ecommerce.orderevent.repository.MenuItemRepository;
+import com.ecommerce.orderevent.repository.RestaurantRepository;
+import com.ecommerce.orderevent.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-process cache of the reference data the order path needs: whether a user or
+ * restaurant exists (with the few fields echoed back in the response) and menu item prices.
+ * Writes through UserService, RestaurantService and MenuItemService evict the affected
+ * entries; the TTL bounds staleness for writes made on other instances.
+ * Missing rows are never cached, so a newly created user or restaurant is visible at once.
+ * Misses are loaded on the primary even inside a read-only transaction: connections are fetched
+ * lazily and every caller looks up reference data before its first other statement.
+ */
+@Component
+public class ReferenceDataCache {
+
+    public record UserRef(Long id, String name, String email) {
+        static UserRef of(User user) {
+            return new UserRef(user.getId(), user.getName(), user.getEmail());
+        }
+    }
+
+    public record RestaurantRef(Long id, String name, String address, String contact) {
+        static RestaurantRef of(Restaurant restaurant) {
+            return new RestaurantRef(restaurant.getId(), restaurant.getName(), restaurant.getAddress(), restaurant.getContact());
+        }
+    }
+
+    public record MenuItemRef(Long id, String name, String description, Double price, Long restaurantId) {
+        static MenuItemRef of(MenuItem item) {
+            Long restaurantId = item.getRestaurant() != null ? item.getRestaurant().getId() : null;
+            return new MenuItemRef(item.getId(), item.getName(), item.getDescription(), item.getPrice(), restaurantId);
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final MenuItemRepository menuItemRepository;
+
+    private final Cache<Long, UserRef> users;
+    private final Cache<Long, RestaurantRef> restaurants;
+    private final Cache<Long, MenuItemRef> menuItems;
+
+    public ReferenceDataCache(UserRepository userRepository,
+                              RestaurantRepository restaurantRepository,
+                              MenuItemRepository menuItemRepository,
+                              @Value("${cache.reference.max-size:100000}") long maxSize,
+                              @Value("${cache.reference.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.users = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofSeconds(ttlSeconds)).build();
+        this.restaurants = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofSeconds(ttlSeconds)).build();
+        this.menuItems = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofSeconds(ttlSeconds)).build();
+    }
+
+    public Optional<UserRef> getUser(Long id) {
+        return Optional.ofNullable(users.get(id, key -> ReadYourWrites.onPrimary(
+                () -> userRepository.findById(key).map(UserRef::of).orElse(null))));
+    }
+
+    public Optional<RestaurantRef> getRestaurant(Long id) {
+        return Optional.ofNullable(restaurants.get(id,
+                key -> ReadYourWrites.onPrimary(() -> restaurantRepository.findById(key).map(RestaurantRef::of).orElse(null))));
+    }
+
+    // Unknown ids are simply absent from the result; all misses are loaded with one findAllById
+    public Map<Long, MenuItemRef> getMenuItems(Collection<Long> ids) {
+        Set<Long> keys = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        return menuItems.getAll(keys, missing -> ReadYourWrites.onPrimary(() -> menuItemRepository.findAllById(Set.copyOf(missing)).stream()
+                .map(MenuItemRef::of)
+                .collect(Collectors.toMap(MenuItemRef::id, Function.identity()))));
+    }
+
+    public void evictUser(Long id) {
+        users.invalidate(id);
+    }
+
+    // A restaurant write can replace or delete its whole menu, so its items go too
+    public void evictRestaurant(Long id) {
+        restaurants.invalidate(id);
+        menuItems.asMap().values().removeIf(item -> id.equals(item.restaurantId()));
+    }
+
+    public void evictMenuItem(Long id) {
+        menuItems.invalidate(id);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.orderevent.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process tier above the Redis restaurant cache, keyed by the same Redis keys and holding the
+ * parsed DTOs, so hot restaurants are served without a network hop or a JSON parse. Entries are
+ * shared between requests and must not be modified by callers.
+ * An eviction is applied locally and published on a Redis channel that every instance listens
+ * on. Pub/sub delivery is fire-and-forget, so a message missed during a reconnect is bounded by
+ * the (short) TTL, like writes that bypass the service.
+ * Misses are loaded through {@link SingleFlight}, so when a hot key expires one request per
+ * instance rebuilds it and the others wait for that result.
+ */
+@Component
+@Slf4j
+public class RestaurantLocalCache implements MessageListener {
+    static final String CHANNEL = "restaurant:cache:evict";
+    private static final String SEPARATOR = " ";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Cache<String, Object> entries;
+    private final SingleFlight loads;
+    // bumped on every invalidation, so a load that raced one is not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    public RestaurantLocalCache(RedisTemplate<String, Object> redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                @Value("${cache.restaurant-local.max-size:1000}") long maxSize,
+                                @Value("${cache.restaurant-local.ttl-seconds:30}") long ttlSeconds,
+                                @Value("${cache.restaurant.load-wait-timeout-ms:5000}") long loadWaitTimeoutMs) {
+        this.redisTemplate = redisTemplate;
+        this.entries = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofSeconds(ttlSeconds)).build();
+        this.loads = new SingleFlight(Duration.ofMillis(loadWaitTimeoutMs));
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        Object cached = entries.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        return loads.load(key, () -> {
+            long loadedAt = generation.get();
+            T value = loader.get();
+            // stored before the waiters are released, so later callers hit it
+            if (value != null) {
+                putUnlessInvalidated(key, value, loadedAt);
+            }
+            return value;
+        });
+    }
+
+    /*
+     * Startup warm-up. The supplier checks the value is still current and returns null if not;
+     * evictions are already arriving, so like a load the value is only kept if none came in while
+     * it was checked. Returns whether the value was stored.
+     */
+    public boolean putIfCurrent(String key, Supplier<?> currentValue) {
+        long checkedAt = generation.get();
+        Object value = currentValue.get();
+        return value != null && putUnlessInvalidated(key, value, checkedAt);
+    }
+
+    // Re-checked after the put: an invalidation that slipped in between has bumped the generation first
+    private boolean putUnlessInvalidated(String key, Object value, long generationBefore) {
+        if (generation.get() != generationBefore) {
+            return false;
+        }
+        entries.put(key, value);
+        if (generation.get() != generationBefore) {
+            entries.invalidate(key);
+            return false;
+        }
+        return true;
+    }
+
+    // The most used entries first, at most limit of them
+    public Map<String, Object> hottest(int limit) {
+        return entries.policy().eviction()
+                .map(eviction -> eviction.hottest(limit))
+                .orElseGet(() -> Map.copyOf(entries.asMap()));
+    }
+
+    // Drops the keys here and on every other instance
+    public void evict(String... keys) {
+        invalidate(keys);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, String.join(SEPARATOR, keys));
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to publish eviction of {}, other instances keep them until the TTL", String.join(SEPARATOR, keys), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        invalidate(new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR));
+    }
+
+    private void invalidate(String... keys) {
+        generation.incrementAndGet();
+        for (String key : keys) {
+            entries.invalidate(key);
+        }
+    }
+}
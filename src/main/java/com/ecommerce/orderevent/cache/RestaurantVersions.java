@@ -0,0 +1,104 @@
+package com.ecommerce.orderevent.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version token per restaurant (covering its menu) and one for the restaurant list, kept in Redis
+ * and used as ETags. Every write sets fresh random tokens instead of incrementing, so a token lost
+ * to expiry or a Redis flush can never come back and match a stale client copy. Redis errors are
+ * logged; a failed read yields null (serve without an ETag) and a failed bump is bounded by the TTL,
+ * which is why the TTL is short: an expired token only costs each client one untagged refetch.
+ */
+@Component
+@Slf4j
+public class RestaurantVersions {
+    private static final String KEY_PREFIX = "restaurant:version:";
+    private static final String LIST_KEY = KEY_PREFIX + "all";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration ttl;
+
+    public RestaurantVersions(RedisTemplate<String, Object> redisTemplate,
+                              @Value("${cache.restaurant-version.ttl-hours:1}") long ttlHours) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    public String current(Long restaurantId) {
+        return current(KEY_PREFIX + restaurantId);
+    }
+
+    // Never creates a version, so it is safe to call for ids not yet known to exist
+    public String peek(Long restaurantId) {
+        return peek(KEY_PREFIX + restaurantId);
+    }
+
+    public String peekList() {
+        return peek(LIST_KEY);
+    }
+
+    public String currentList() {
+        return current(LIST_KEY);
+    }
+
+    // The restaurant or its menu changed, and with it the list
+    public void bump(Long restaurantId) {
+        try {
+            ValueOperations<String, Object> ops = redisTemplate.opsForValue();
+            ops.set(KEY_PREFIX + restaurantId, newVersion(), ttl);
+            ops.set(LIST_KEY, newVersion(), ttl);
+        } catch (Exception e) {
+            log.error("❌ Failed to bump version of restaurant {}, clients may get stale 304s until it expires", restaurantId, e);
+        }
+    }
+
+    // The restaurant is gone: without a version its ETag is null, so no request can get a 304 for it
+    public void remove(Long restaurantId) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + restaurantId);
+        } catch (Exception e) {
+            log.error("❌ Failed to remove version of deleted restaurant {}, it is tagged until it expires", restaurantId, e);
+        }
+    }
+
+    private String peek(String key) {
+        try {
+            Object version = redisTemplate.opsForValue().get(key);
+            return version != null ? version.toString() : null;
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to read version {}", key, e);
+            return null;
+        }
+    }
+
+    private String current(String key) {
+        try {
+            ValueOperations<String, Object> ops = redisTemplate.opsForValue();
+            Object version = ops.get(key);
+            if (version != null) {
+                return version.toString();
+            }
+            String fresh = newVersion();
+            if (Boolean.TRUE.equals(ops.setIfAbsent(key, fresh, ttl))) {
+                return fresh;
+            }
+            // another request created it first
+            version = ops.get(key);
+            return version != null ? version.toString() : null;
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to read version {}", key, e);
+            return null;
+        }
+    }
+
+    private static String newVersion() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    }
+}
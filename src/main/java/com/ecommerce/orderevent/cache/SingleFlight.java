@@ -0,0 +1,60 @@
+package com.ecommerce.orderevent.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key on this instance: the first caller runs the loader
+ * and everyone arriving meanwhile waits for its result (or its exception) instead of hitting the
+ * database as well. A waiter that runs out of patience loads on its own, so a stuck leader slows
+ * requests down but never fails them.
+ */
+@Slf4j
+public class SingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Duration waitTimeout;
+
+    public SingleFlight(Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T load(String key, Supplier<T> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running == null) {
+            try {
+                T value = loader.get();
+                mine.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+        try {
+            return (T) running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("⚠️ Gave up waiting {} ms for the load of {}, loading it separately", waitTimeout.toMillis(), key);
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Load of " + key + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the load of " + key, e);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+}
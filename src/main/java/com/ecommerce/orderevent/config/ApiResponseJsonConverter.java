@@ -0,0 +1,34 @@
+package com.ecommerce.orderevent.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+// Serializes ApiResponse bodies through the cached writers of ApiResponseWriters
+public class ApiResponseJsonConverter extends MappingJackson2HttpMessageConverter {
+
+    private final ApiResponseWriters writers;
+
+    public ApiResponseJsonConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+        this.writers = new ApiResponseWriters(objectMapper.writer());
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable JavaType javaType, @Nullable MediaType contentType) {
+        // JSON views, filters and SSE pretty printing configure the writer per call; leave those alone
+        SerializationConfig config = writer.getConfig();
+        boolean plain = config.getActiveView() == null
+                && config.getFilterProvider() == null
+                && !config.isEnabled(SerializationFeature.INDENT_OUTPUT);
+        if (plain && ApiResponseWriters.isEnvelope(javaType)) {
+            return writers.writerFor(javaType);
+        }
+        return writer;
+    }
+}
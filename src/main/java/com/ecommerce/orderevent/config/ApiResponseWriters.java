@@ -0,0 +1,32 @@
+package com.ecommerce.orderevent.config;
+
+import com.ecommerce.orderevent.dtos.ApiResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One ObjectWriter per declared response type, e.g. {@code ApiResponse<List<RestaurantResponseDto>>}.
+ * A typed writer resolves its root serializer once, up front, and the generic {@code data} field
+ * is serialized for its declared type instead of through one dynamic lookup shared by every
+ * response type.
+ */
+public class ApiResponseWriters {
+
+    private final ObjectWriter base;
+    private final Map<JavaType, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public ApiResponseWriters(ObjectWriter base) {
+        this.base = base;
+    }
+
+    public static boolean isEnvelope(JavaType type) {
+        return type != null && type.hasRawClass(ApiResponse.class);
+    }
+
+    public ObjectWriter writerFor(JavaType envelopeType) {
+        return writers.computeIfAbsent(envelopeType, base::forType);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.orderevent.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class JacksonConfig {
+
+    // Shared by MVC, Redis values and outbox payloads. Kafka's JsonSerializer/JsonDeserializer build
+    // their own mapper, which ignores unknown properties so consumers survive newer producers' events
+    @Bean
+    public ObjectMapper objectMapper() {
+        return newObjectMapper();
+    }
+
+    // Replaces Spring Boot's JSON converter; same mapper, cached writers for ApiResponse bodies
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new ApiResponseJsonConverter(objectMapper);
+    }
+
+    /**
+     * Blackbird swaps reflective getter calls for generated lambdas. Dates are still written as
+     * numeric arrays, as they always have been, so the wire format does not change.
+     */
+    public static ObjectMapper newObjectMapper() {
+        return newObjectMapper(new JsonFactory());
+    }
+
+    // Same configuration over another format, e.g. Smile for cache values
+    public static ObjectMapper newObjectMapper(JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.registerModule(new JavaTimeModule());
+        mapper.findAndRegisterModules();
+        mapper.registerModule(new BlackbirdModule());
+        return mapper;
+    }
+}
@@ -1,27 +1,54 @@
 package com.ecommerce.orderevent.config;
 
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import java.util.*;
 
+import static com.ecommerce.orderevent.constants.KafkaTopics.ORDER_EVENTS;
+
 @EnableKafka
 @Configuration
 public class KafkaConfig {
 
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${kafka.topics.order-events.partitions:6}")
+    private int orderEventsPartitions;
+
+    @Value("${kafka.topics.order-events.replicas:1}")
+    private short orderEventsReplicas;
+
+    @Value("${kafka.consumer.concurrency:6}")
+    private int consumerConcurrency;
+
+    // Created on startup by KafkaAdmin; partitions are only ever added, never removed
+    @Bean
+    public NewTopic orderEventsTopic() {
+        return TopicBuilder.name(ORDER_EVENTS)
+                .partitions(orderEventsPartitions)
+                .replicas(orderEventsReplicas)
+                .build();
+    }
+
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
         JsonDeserializer<Object> deserializer = new JsonDeserializer<>();
         deserializer.addTrustedPackages("*"); // trust all packages
 
         Map<String, Object> config = new HashMap<>();
-        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-group");
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
@@ -29,11 +56,49 @@ public class KafkaConfig {
         return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), deserializer);
     }
 
+    // No group: its consumers are assigned partitions directly, start at the latest offset and commit nothing
+    @Bean
+    public ConsumerFactory<String, Object> broadcastConsumerFactory() {
+        JsonDeserializer<Object> deserializer = new JsonDeserializer<>();
+        deserializer.addTrustedPackages("*"); // trust all packages
+
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
+
+        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), deserializer);
+    }
+
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        // one consumer thread per partition at most; extra threads would sit idle
+        factory.setConcurrency(Math.min(consumerConcurrency, orderEventsPartitions));
+        return factory;
+    }
+
+    // For listeners that hold records past the listener call and commit their offsets once they are stored
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> manualAckContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(Math.min(consumerConcurrency, orderEventsPartitions));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    // For listeners on every instance that need each event while running but no position across restarts
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> broadcastContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(broadcastConsumerFactory());
         return factory;
     }
 }
@@ -0,0 +1,40 @@
+package com.ecommerce.orderevent.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Escape hatch from replica routing: while the current thread is pinned, read-only transactions
+ * also go to the primary. Pin before the transaction starts; a transaction keeps the connection
+ * it was given first.
+ */
+public final class ReadYourWrites {
+    private ReadYourWrites() {} // prevent instantiation
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    // Closing the pin restores the previous state, so pins nest
+    public interface Pin extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static Pin pin() {
+        boolean wasPinned = isPinned();
+        PINNED.set(Boolean.TRUE);
+        return () -> {
+            if (!wasPinned) {
+                PINNED.remove();
+            }
+        };
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        try (Pin ignored = pin()) {
+            return action.get();
+        }
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+}
@@ -1,26 +1,20 @@
 package com.ecommerce.orderevent.config;
 
+import com.ecommerce.orderevent.cache.CacheValueCodec;
+import com.ecommerce.orderevent.cache.JacksonCacheValueCodec;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 public class RedisConfig {
 
-    // ✅ Custom ObjectMapper registered globally
-    @Bean
-    public ObjectMapper redisObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.findAndRegisterModules();
-        return mapper;
-    }
-
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -29,4 +23,31 @@ public class RedisConfig {
         template.setValueSerializer(RedisSerializer.string()); // ✅ we’re storing JSON as strings now
         return template;
     }
-}
\ No newline at end of file
+
+    // Raw bytes for values encoded by CacheValueCodec; entries written as JSON strings read back as their UTF-8 bytes
+    @Bean
+    public RedisTemplate<String, byte[]> cacheRedisTemplate(RedisConnectionFactory factory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(factory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+
+    @Bean
+    public CacheValueCodec cacheValueCodec(ObjectMapper objectMapper,
+                                           @Value("${cache.codec.format:smile}") String format,
+                                           @Value("${cache.codec.compress-above-bytes:4096}") int compressAboveBytes) {
+        return new JacksonCacheValueCodec(objectMapper, JacksonCacheValueCodec.Format.of(format), compressAboveBytes);
+    }
+
+    // Pub/sub subscriptions, e.g. the cross-instance evictions of RestaurantLocalCache
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.orderevent.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else, including work outside a
+ * transaction and threads pinned through {@link ReadYourWrites}, to the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy: the transaction manager asks for a connection before the
+ * read-only flag of the new transaction is visible here.
+ * Reads that fill a cache must not use the replica: whatever lag they pick up would be cached
+ * far longer than the lag lasts, so those are plain transactions or pinned.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.isPinned()
+                ? Target.REPLICA
+                : Target.PRIMARY;
+    }
+}
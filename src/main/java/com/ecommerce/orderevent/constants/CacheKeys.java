@@ -0,0 +1,14 @@
+package com.ecommerce.orderevent.constants;
+
+// Redis (and local tier) keys of the restaurant and menu read caches
+public class CacheKeys {
+    private CacheKeys() {}
+
+    public static final String RESTAURANT = "restaurant:";
+    // local tier key of the assembled list; in Redis only written by older versions, which still read it
+    public static final String RESTAURANT_LIST = RESTAURANT + "all";
+    // Redis hash with one field per restaurant id, see RestaurantService.getAllRestaurant
+    public static final String RESTAURANT_LIST_HASH = RESTAURANT + "list";
+    public static final String MENU = "restaurant:menu:";
+    public static final String MENU_ITEM = "menuitem:";
+}
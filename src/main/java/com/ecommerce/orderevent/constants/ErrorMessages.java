@@ -7,5 +7,10 @@ public class ErrorMessages {
     public static final String USER_NOT_FOUND = "User not found with id: ";
     public static final String MENU_ITEM_NOT_FOUND = "Menu item not found with id: ";
     public static final String ORDER_ITEM_NOT_FOUND = "Order item not found with id: ";
+    public static final String INVALID_ORDER_REQUEST = "userId, restaurantId and menuItemIds are required";
+    public static final String INVALID_CURSOR = "Invalid page cursor: ";
+    public static final String INVALID_EXPORT_FORMAT = "Unsupported export format (use ndjson or csv): ";
+    public static final String IDEMPOTENCY_KEY_IN_PROGRESS = "A request with this Idempotency-Key is still being processed: ";
+    public static final String IDEMPOTENCY_KEY_REUSED = "This Idempotency-Key was already used with a different request body: ";
 }
 
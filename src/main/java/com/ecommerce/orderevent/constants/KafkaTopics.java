@@ -0,0 +1,7 @@
+package com.ecommerce.orderevent.constants;
+
+public class KafkaTopics {
+    private KafkaTopics() {}
+
+    public static final String ORDER_EVENTS = "order-events";
+}
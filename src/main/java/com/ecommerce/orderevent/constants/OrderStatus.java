@@ -0,0 +1,39 @@
+package com.ecommerce.orderevent.constants;
+
+import java.util.Map;
+import java.util.Set;
+
+public class OrderStatus {
+    private OrderStatus() {} // prevent instantiation
+
+    public static final String PLACED = "PLACED";
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String REJECTED = "REJECTED";
+    public static final String PAYMENT_SUCCESS = "PAYMENT_SUCCESS";
+
+    // current status -> statuses it may move to; anything not listed here is rejected
+    private static final Map<String, Set<String>> TRANSITIONS = Map.of(
+            PLACED, Set.of(ACCEPTED, REJECTED),
+            ACCEPTED, Set.of(PAYMENT_SUCCESS)
+    );
+
+    // true when an order in status {@code from} may move straight to {@code to}
+    public static boolean canTransition(String from, String to) {
+        return TRANSITIONS.getOrDefault(from, Set.of()).contains(to);
+    }
+
+    // true when an order in status {@code from} can later reach {@code to}
+    public static boolean precedes(String from, String to) {
+        for (String next : TRANSITIONS.getOrDefault(from, Set.of())) {
+            if (next.equals(to) || precedes(next, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // no transition leads out of it
+    public static boolean isFinal(String status) {
+        return !TRANSITIONS.containsKey(status);
+    }
+}
@@ -1,18 +1,30 @@
 package com.ecommerce.orderevent.controller;
 
+import com.ecommerce.orderevent.dtos.BatchOrderRequestDto;
+import com.ecommerce.orderevent.dtos.BatchOrderResultDto;
+import com.ecommerce.orderevent.dtos.OrderPageDto;
 import com.ecommerce.orderevent.dtos.OrderRequestDto;
 import com.ecommerce.orderevent.dtos.OrderResponseDto;
 import com.ecommerce.orderevent.dtos.OrderStatusUpdateRequestDto;
-import com.ecommerce.orderevent.entity.Order;
+import com.ecommerce.orderevent.dtos.OrderSummaryDto;
+import com.ecommerce.orderevent.service.IdempotencyService;
+import com.ecommerce.orderevent.service.OrderEventStreamService;
+import com.ecommerce.orderevent.service.OrderExportService;
 import com.ecommerce.orderevent.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import com.ecommerce.orderevent.dtos.ApiResponse;
 import static com.ecommerce.orderevent.constants.ApiResponseStatus.SUCCESS;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -22,14 +34,28 @@ import java.util.*;
 public class OrderController {
 
     private final OrderService orderService;
-    public  OrderController(OrderService orderService){
+    private final IdempotencyService idempotencyService;
+    private final OrderExportService orderExportService;
+    private final OrderEventStreamService orderEventStreamService;
+    public  OrderController(OrderService orderService, IdempotencyService idempotencyService,
+                            OrderExportService orderExportService, OrderEventStreamService orderEventStreamService){
         this.orderService=orderService;
+        this.idempotencyService=idempotencyService;
+        this.orderExportService=orderExportService;
+        this.orderEventStreamService=orderEventStreamService;
     }
 
     @PostMapping("/placeOrder")
-    @Operation(summary = "Place new order", description = "Create a new order and save it to the system")
-    public ResponseEntity<ApiResponse<OrderResponseDto>> placeOrder(@RequestBody @Valid OrderRequestDto requestDto) {
-        OrderResponseDto responseDto = orderService.placeOrder(requestDto);
+    @Operation(summary = "Place new order", description = "Create a new order and save it to the system. "
+            + "Retries that repeat the Idempotency-Key header get the original order back instead of a new one")
+    public ResponseEntity<ApiResponse<OrderResponseDto>> placeOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody @Valid OrderRequestDto requestDto) {
+        // keys are scoped per user so two clients cannot collide on the same key
+        OrderResponseDto responseDto = idempotencyKey == null || idempotencyKey.isBlank()
+                ? orderService.placeOrder(requestDto)
+                : idempotencyService.execute("order:" + requestDto.getUserId() + ":" + idempotencyKey, requestDto,
+                        OrderResponseDto.class, () -> orderService.placeOrder(requestDto));
         ApiResponse<OrderResponseDto> response = new ApiResponse<>(
                 SUCCESS,
                 "Order placed successfully!",
@@ -39,11 +65,25 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Place orders in bulk", description = "Create many orders in one call and report success or failure per order")
+    public ResponseEntity<ApiResponse<List<BatchOrderResultDto>>> placeOrders(@RequestBody @Valid BatchOrderRequestDto requestDto) {
+        List<BatchOrderResultDto> results = orderService.placeOrders(requestDto.getOrders());
+        long placed = results.stream().filter(BatchOrderResultDto::isSuccess).count();
+        ApiResponse<List<BatchOrderResultDto>> response = new ApiResponse<>(
+                SUCCESS,
+                "Batch processed: " + placed + " placed, " + (results.size() - placed) + " failed",
+                results,
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     @GetMapping("/{orderId}")
     @Operation(summary = "Fetch order details", description = "Retrieve detailed information of a specific order by its ID")
-    public ResponseEntity<ApiResponse<Order>> getOrderDetails(@PathVariable Long orderId){
-        Order order = orderService.getOrderDetails(orderId);
-        ApiResponse<Order> response = new ApiResponse<>(
+    public ResponseEntity<ApiResponse<OrderResponseDto>> getOrderDetails(@PathVariable Long orderId){
+        OrderResponseDto order = orderService.getOrderDetails(orderId);
+        ApiResponse<OrderResponseDto> response = new ApiResponse<>(
                 SUCCESS,
                 "Order details fetched successfully!",
                 order,
@@ -54,9 +94,23 @@ public class OrderController {
 
     @GetMapping("/restaurant/{restaurantId}")
     @Operation(summary = "Fetch orders by restaurant", description = "Retrieve all orders placed for a specific restaurant by its ID")
-    public ResponseEntity<ApiResponse<List<Order>>> getOrdersByRestaurant(@PathVariable Long restaurantId) {
-        List<Order> orders = orderService.getOrdersByRestaurant(restaurantId);
-        ApiResponse<List<Order>> response = new ApiResponse<>(
+    public ResponseEntity<ApiResponse<List<OrderResponseDto>>> getOrdersByRestaurant(@PathVariable Long restaurantId) {
+        List<OrderResponseDto> orders = orderService.getOrdersByRestaurant(restaurantId);
+        ApiResponse<List<OrderResponseDto>> response = new ApiResponse<>(
+                SUCCESS,
+                "Order of the restaurant...",
+                orders,
+                LocalDateTime.now()
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/restaurant/{restaurantId}/summaries")
+    @Operation(summary = "Fetch order summaries by restaurant",
+            description = "Retrieve all orders of a restaurant without their items, user or restaurant details")
+    public ResponseEntity<ApiResponse<List<OrderSummaryDto>>> getOrderSummariesByRestaurant(@PathVariable Long restaurantId) {
+        List<OrderSummaryDto> orders = orderService.getOrderSummariesByRestaurant(restaurantId);
+        ApiResponse<List<OrderSummaryDto>> response = new ApiResponse<>(
                 SUCCESS,
                 "Order of the restaurant...",
                 orders,
@@ -65,6 +119,41 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/restaurant/{restaurantId}/page")
+    @Operation(summary = "Fetch orders by restaurant, paginated",
+            description = "Retrieve a restaurant's orders newest first, one page at a time. Pass the returned nextCursor to get the next page")
+    public ResponseEntity<ApiResponse<OrderPageDto>> getOrdersByRestaurantPage(
+            @PathVariable Long restaurantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        OrderPageDto page = orderService.getOrdersByRestaurant(restaurantId, cursor, size);
+        ApiResponse<OrderPageDto> response = new ApiResponse<>(
+                SUCCESS,
+                "Order of the restaurant...",
+                page,
+                LocalDateTime.now()
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/restaurant/{restaurantId}/export")
+    @Operation(summary = "Export orders by restaurant",
+            description = "Stream a restaurant's orders, oldest first, as NDJSON (default) or CSV; other formats are a 400. "
+                    + "from and to (yyyy-MM-dd, both inclusive) limit the order date range")
+    public ResponseEntity<StreamingResponseBody> exportOrdersByRestaurant(
+            @PathVariable Long restaurantId,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        OrderExportService.Format exportFormat = OrderExportService.Format.of(format);
+        StreamingResponseBody body = orderExportService.export(restaurantId, from, to, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"restaurant-" + restaurantId + "-orders." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}/status")
     public ResponseEntity<ApiResponse<String>> getOrderStatus(@PathVariable Long id) {
         String status = orderService.getOrderStatus(id);
@@ -77,6 +166,14 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream order status",
+            description = "Server-sent events: the current status first, then each transition as it happens. "
+                    + "The stream ends after REJECTED or PAYMENT_SUCCESS; use it instead of polling /orders/{id}/status")
+    public SseEmitter streamOrderEvents(@PathVariable Long id) {
+        return orderEventStreamService.subscribe(id);
+    }
+
     @DeleteMapping("/{orderId}")
     @Operation(summary = "Cancel order", description = "Cancel an existing order by its ID")
     public ResponseEntity<Void> cancelOrder(@PathVariable Long orderId){
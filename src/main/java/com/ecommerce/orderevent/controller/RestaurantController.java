@@ -4,14 +4,17 @@ import com.ecommerce.orderevent.dtos.ApiResponse;
 import static com.ecommerce.orderevent.constants.ApiResponseStatus.SUCCESS;
 import com.ecommerce.orderevent.dtos.RestaurantRequestDto;
 import com.ecommerce.orderevent.dtos.RestaurantResponseDto;
+import com.ecommerce.orderevent.dtos.RestaurantStatsDto;
 import com.ecommerce.orderevent.entity.MenuItem;
 import com.ecommerce.orderevent.service.MenuItemService;
 import com.ecommerce.orderevent.service.RestaurantService;
+import com.ecommerce.orderevent.service.RestaurantStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -21,10 +24,13 @@ import java.util.*;
 public class RestaurantController {
     private final RestaurantService restaurantService;
     private final MenuItemService menuItemService;
+    private final RestaurantStatsService restaurantStatsService;
 
-    public RestaurantController(RestaurantService restaurantService, MenuItemService menuItemService){
+    public RestaurantController(RestaurantService restaurantService, MenuItemService menuItemService,
+                                RestaurantStatsService restaurantStatsService){
         this.restaurantService=restaurantService;
         this.menuItemService=menuItemService;
+        this.restaurantStatsService=restaurantStatsService;
     }
 
     @PostMapping
@@ -55,7 +61,11 @@ public class RestaurantController {
 
     @GetMapping
     @Operation(summary = "Fetch all restaurants", description = "Retrieve a list of all restaurants")
-    public ResponseEntity<ApiResponse<List<RestaurantResponseDto>>> getAllRestaurant(){
+    public ResponseEntity<ApiResponse<List<RestaurantResponseDto>>> getAllRestaurant(WebRequest request){
+        // 304 straight from the Redis version, before the list is read or deserialized
+        if (notModified(request, restaurantService.restaurantListETag())) {
+            return null;
+        }
         List<RestaurantResponseDto> allRestaurant = restaurantService.getAllRestaurant();
         ApiResponse<List<RestaurantResponseDto>> response = new ApiResponse<>(
                 SUCCESS,
@@ -68,8 +78,14 @@ public class RestaurantController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Fetch restaurant by ID", description = "Get details of a specific restaurant by its ID")
-    public ResponseEntity<ApiResponse<RestaurantResponseDto>> getRestaurantById(@PathVariable Long id){
+    public ResponseEntity<ApiResponse<RestaurantResponseDto>> getRestaurantById(@PathVariable Long id, WebRequest request){
+        // unknown ids have no version and so no tag: they fall through to the load and its 404
+        String eTag = restaurantService.restaurantETag(id);
+        if (notModified(request, eTag)) {
+            return null;
+        }
         RestaurantResponseDto restaurant = restaurantService.getRestaurantById(id);
+        ensureVersion(eTag, id);
         ApiResponse<RestaurantResponseDto> response = new ApiResponse<>(
                 SUCCESS,
                 "Restaurant details fetched successfully!",
@@ -81,8 +97,13 @@ public class RestaurantController {
 
     @GetMapping("/{id}/menu")
     @Operation(summary = "Fetch menu of a restaurant", description = "Retrieve all menu items for a specific restaurant by its ID")
-    public ResponseEntity<ApiResponse<List<MenuItem>>> menuOfRestaurant(@PathVariable Long id){
+    public ResponseEntity<ApiResponse<List<MenuItem>>> menuOfRestaurant(@PathVariable Long id, WebRequest request){
+        String eTag = restaurantService.menuETag(id);
+        if (notModified(request, eTag)) {
+            return null;
+        }
         List<MenuItem> listOfMenus = menuItemService.getMenuItemsByRestaurant(id);
+        ensureVersion(eTag, id);
         ApiResponse<List<MenuItem>> response = new ApiResponse<>(
                 SUCCESS,
                 "Menu-items of the restaurant fetched successfully!",
@@ -92,6 +113,20 @@ public class RestaurantController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/stats")
+    @Operation(summary = "Fetch today's restaurant stats",
+            description = "Today's order counts by status, revenue and average basket, kept up to date from order events")
+    public ResponseEntity<ApiResponse<RestaurantStatsDto>> getRestaurantStats(@PathVariable Long id){
+        RestaurantStatsDto stats = restaurantStatsService.getStats(id);
+        ApiResponse<RestaurantStatsDto> response = new ApiResponse<>(
+                SUCCESS,
+                "Restaurant stats fetched successfully!",
+                stats,
+                LocalDateTime.now()
+        );
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete restaurant", description = "Delete an existing restaurant by its ID")
     public ResponseEntity<ApiResponse<Void>> deleteRestaurant(@PathVariable Long id) {
@@ -105,4 +140,15 @@ public class RestaurantController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).body(response);
     }
 
+    // Also sets the ETag header on the 200 response; without a tag (Redis down) the request is served normally
+    private static boolean notModified(WebRequest request, String eTag) {
+        return eTag != null && request.checkNotModified(eTag);
+    }
+
+    // For a restaurant that just loaded: without a version yet, create one for the next request
+    private void ensureVersion(String eTag, Long restaurantId) {
+        if (eTag == null) {
+            restaurantService.ensureRestaurantVersion(restaurantId);
+        }
+    }
 }
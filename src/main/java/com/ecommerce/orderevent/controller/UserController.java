@@ -1,10 +1,13 @@
 package com.ecommerce.orderevent.controller;
 
 import com.ecommerce.orderevent.dtos.ApiResponse;
+import com.ecommerce.orderevent.dtos.OrderPageDto;
+import com.ecommerce.orderevent.dtos.OrderResponseDto;
+import com.ecommerce.orderevent.dtos.OrderSummaryDto;
 import com.ecommerce.orderevent.dtos.UserRequestDto;
 import com.ecommerce.orderevent.dtos.UserResponseDto;
-import com.ecommerce.orderevent.entity.Order;
 import com.ecommerce.orderevent.entity.User;
+import com.ecommerce.orderevent.service.OrderService;
 import com.ecommerce.orderevent.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -21,8 +24,10 @@ import java.util.*;
 public class UserController {
 
     private final UserService userService;
-    public UserController(UserService userService){
+    private final OrderService orderService;
+    public UserController(UserService userService, OrderService orderService){
         this.userService=userService;
+        this.orderService=orderService;
     }
 
     @GetMapping
@@ -66,9 +71,9 @@ public class UserController {
 
     @GetMapping("/{id}/orders")
     @Operation(summary = "Fetch user orders", description = "Retrieve all orders associated with a specific user by their ID")
-    public ResponseEntity<ApiResponse<List<Order>>> getUserOrders(@PathVariable Long id) {
-        List<Order> orders = userService.getUserOrders(id);
-        ApiResponse<List<Order>> response = new ApiResponse<>(
+    public ResponseEntity<ApiResponse<List<OrderResponseDto>>> getUserOrders(@PathVariable Long id) {
+        List<OrderResponseDto> orders = orderService.getOrdersByUser(id);
+        ApiResponse<List<OrderResponseDto>> response = new ApiResponse<>(
                 SUCCESS,
                 "Order fetched successfully!",
                 orders,
@@ -77,6 +82,36 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/orders/summaries")
+    @Operation(summary = "Fetch user order summaries", description = "Retrieve all orders of a user without their items, user or restaurant details")
+    public ResponseEntity<ApiResponse<List<OrderSummaryDto>>> getUserOrderSummaries(@PathVariable Long id) {
+        List<OrderSummaryDto> orders = orderService.getOrderSummariesByUser(id);
+        ApiResponse<List<OrderSummaryDto>> response = new ApiResponse<>(
+                SUCCESS,
+                "Order fetched successfully!",
+                orders,
+                LocalDateTime.now()
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{id}/orders/page")
+    @Operation(summary = "Fetch user orders, paginated",
+            description = "Retrieve a user's orders newest first, one page at a time. Pass the returned nextCursor to get the next page")
+    public ResponseEntity<ApiResponse<OrderPageDto>> getUserOrdersPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        OrderPageDto page = orderService.getOrdersByUser(id, cursor, size);
+        ApiResponse<OrderPageDto> response = new ApiResponse<>(
+                SUCCESS,
+                "Order fetched successfully!",
+                page,
+                LocalDateTime.now()
+        );
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete user", description = "Delete a user from the system by their ID")
     public ResponseEntity<ApiResponse<Void>> deleteUser(@PathVariable Long id) {
@@ -0,0 +1,15 @@
+package com.ecommerce.orderevent.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchOrderRequestDto {
+    // Individual orders are validated one by one so a bad entry fails alone instead of the whole batch
+    @NotEmpty(message = "At least one order is required")
+    @Size(max = 500, message = "A batch can contain at most 500 orders")
+    private List<OrderRequestDto> orders;
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.orderevent.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchOrderResultDto {
+    private int index;          // position of the order in the submitted batch
+    private boolean success;
+    private OrderResponseDto order;
+    private String error;
+
+    public static BatchOrderResultDto success(int index, OrderResponseDto order) {
+        return new BatchOrderResultDto(index, true, order, null);
+    }
+
+    public static BatchOrderResultDto failure(int index, String error) {
+        return new BatchOrderResultDto(index, false, null, error);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.orderevent.dtos;
+
+import com.ecommerce.orderevent.entity.OrderLine;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLineDto {
+    private Long menuItemId;
+    private String name;
+    private Double unitPrice;
+    private Integer quantity;
+
+    public static OrderLineDto fromEntity(OrderLine line) {
+        return new OrderLineDto(line.getMenuItemId(), line.getName(), line.getUnitPrice(), line.getQuantity());
+    }
+}
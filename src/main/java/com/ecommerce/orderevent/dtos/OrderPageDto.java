@@ -0,0 +1,14 @@
+package com.ecommerce.orderevent.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageDto {
+    private List<OrderSummaryDto> orders;
+    private String nextCursor; // pass back as ?cursor= for the next page; null on the last page
+}
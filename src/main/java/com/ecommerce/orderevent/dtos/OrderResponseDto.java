@@ -15,7 +15,7 @@ public class OrderResponseDto {
 
     private UserResponseDto user;
     private RestaurantResponseDto restaurant;
-    private List<MenuItemResponseDto> items;
+    private List<OrderLineDto> items;
 
     public static OrderResponseDto fromEntity(Order order) {
         OrderResponseDto dto = new OrderResponseDto();
@@ -29,13 +29,13 @@ public class OrderResponseDto {
         }
 
         if (order.getRestaurant() != null) {
-            dto.setRestaurant(RestaurantResponseDto.fromEntity(order.getRestaurant()));
+            dto.setRestaurant(RestaurantResponseDto.withoutMenu(order.getRestaurant()));
         }
 
         if (order.getItems() != null) {
             dto.setItems(order.getItems()
                     .stream()
-                    .map(MenuItemResponseDto::fromEntity)
+                    .map(OrderLineDto::fromEntity)
                     .collect(Collectors.toList()));
         }
 
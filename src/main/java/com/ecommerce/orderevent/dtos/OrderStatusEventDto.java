@@ -0,0 +1,14 @@
+package com.ecommerce.orderevent.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Payload of the "status" server-sent events on /orders/{id}/events
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEventDto {
+    private Long orderId;
+    private String status;
+}
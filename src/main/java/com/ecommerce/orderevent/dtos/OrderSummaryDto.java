@@ -0,0 +1,19 @@
+package com.ecommerce.orderevent.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// One row of an order listing; built straight from the orders table, without lines or associations
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+    private Long id;
+    private LocalDateTime orderDate;
+    private String status;
+    private Double totalPrice;
+    private Long userId;
+    private Long restaurantId;
+}
@@ -13,6 +13,16 @@ public class RestaurantResponseDto {
     private String contact;
     private List<MenuItemResponseDto> menuItems;
 
+    // Restaurant header only; used where the menu is not part of the response (e.g. inside an order)
+    public static RestaurantResponseDto withoutMenu(Restaurant restaurant) {
+        RestaurantResponseDto dto = new RestaurantResponseDto();
+        dto.setId(restaurant.getId());
+        dto.setName(restaurant.getName());
+        dto.setAddress(restaurant.getAddress());
+        dto.setContact(restaurant.getContact());
+        return dto;
+    }
+
     public static RestaurantResponseDto fromEntity(Restaurant restaurant) {
         RestaurantResponseDto dto = new RestaurantResponseDto();
         dto.setId(restaurant.getId());
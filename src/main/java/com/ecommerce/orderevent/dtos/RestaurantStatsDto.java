@@ -0,0 +1,20 @@
+package com.ecommerce.orderevent.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.util.Map;
+
+// Today's figures for one restaurant; counts are orders that reached each status today
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestaurantStatsDto {
+    private Long restaurantId;
+    private LocalDate date;
+    private Map<String, Long> ordersByStatus;
+    private Double revenue;           // paid orders only
+    private Double averageBasketSize; // items per placed order
+    private Double averageOrderValue;
+}
@@ -8,11 +8,25 @@ import java.util.*;
 
 @Entity
 @Data
-@Table(name = "orders")
+// Fetch plan for rendering an OrderResponseDto from the entity: user, restaurant and lines in one select
+@NamedEntityGraph(name = "Order.response", attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("restaurant"),
+        @NamedAttributeNode("items")
+})
+@Table(name = "orders", indexes = {
+        // keyset pagination of order listings, see OrderRepository
+        @Index(name = "idx_orders_restaurant_date_id", columnList = "restaurant_id, order_date DESC, id DESC"),
+        @Index(name = "idx_orders_user_date_id", columnList = "user_id, order_date DESC, id DESC")
+})
 public class Order {
 
+    // Sequence ids (pre-allocated in blocks of 50) let Hibernate JDBC-batch order inserts;
+    // IDENTITY forces one round trip per row to read back the generated key.
+    // On databases with orders from the IDENTITY days, OrderIdSequenceSync moves the sequence past them.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     // One User → Many Orders
@@ -26,15 +40,11 @@ public class Order {
     @JoinColumn(name = "restaurant_id", nullable = false)
     private Restaurant restaurant;
 
-    // One Order → Many MenuItems (many-to-many relationship)
-    @ManyToMany
-    @JoinTable(
-            name = "order_items",
-            joinColumns = @JoinColumn(name = "order_id"),
-            inverseJoinColumns = @JoinColumn(name = "menu_item_id")
-    )
-    private List<MenuItem> items;
+    // Snapshot of the ordered menu items, written once at placement
+    @ElementCollection
+    @CollectionTable(name = "order_lines", joinColumns = @JoinColumn(name = "order_id"))
+    private List<OrderLine> items;
     private LocalDateTime orderDate;
-    private String status;  // e.g., PLACED, CONFIRMED, DELIVERED, CANCELLED
+    private String status;  // see OrderStatus for the values and allowed transitions
     private Double totalPrice;
 }
@@ -0,0 +1,33 @@
+package com.ecommerce.orderevent.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What was ordered, copied from the menu at placement time. Later menu edits or deletes
+ * do not change it, and reading it never touches menu_items.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLine {
+    @Column(nullable = false)
+    private Long menuItemId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private Double unitPrice;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    public static OrderLine of(MenuItem item) {
+        return new OrderLine(item.getId(), item.getName(), item.getPrice(), 1);
+    }
+}
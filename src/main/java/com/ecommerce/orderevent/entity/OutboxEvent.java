@@ -0,0 +1,29 @@
+package com.ecommerce.orderevent.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Event waiting to be published to Kafka; written in the same transaction as the order change
+@Entity
+@Data
+@Table(name = "order_outbox")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;   // order id
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;     // OrderEvent as JSON
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
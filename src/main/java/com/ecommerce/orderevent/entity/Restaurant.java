@@ -8,6 +8,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "restaurants")
+// Fetch plan for writes that return the full restaurant: loads the menu in the same select
+@NamedEntityGraph(name = "Restaurant.menu", attributeNodes = @NamedAttributeNode("menuItems"))
 @Data
 public class Restaurant {
     @Id
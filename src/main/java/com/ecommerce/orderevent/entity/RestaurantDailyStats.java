@@ -0,0 +1,46 @@
+package com.ecommerce.orderevent.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Per restaurant and day counters, maintained from order events by RestaurantStatsService
+@Entity
+@Data
+@Table(name = "restaurant_daily_stats")
+@IdClass(RestaurantDailyStats.Key.class)
+public class RestaurantDailyStats {
+
+    @Id
+    @Column(name = "restaurant_id")
+    private Long restaurantId;
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    // orders that reached each status that day
+    private long placed;
+    private long accepted;
+    private long rejected;
+    private long paid;
+
+    @Column(name = "item_count")
+    private long itemCount;     // items across the day's placed orders
+
+    @Column(name = "placed_value")
+    private double placedValue; // total price of the day's placed orders
+
+    private double revenue;     // total price of the day's paid orders
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long restaurantId;
+        private LocalDate statDate;
+    }
+}
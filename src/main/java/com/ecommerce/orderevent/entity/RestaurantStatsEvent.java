@@ -0,0 +1,36 @@
+package com.ecommerce.orderevent.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Order events already counted in restaurant_daily_stats; an order reaches each status once, so (order, status) names the event
+@Entity
+@Data
+@Table(name = "restaurant_stats_events", indexes = {
+        @Index(name = "idx_restaurant_stats_events_date", columnList = "stat_date")
+})
+@IdClass(RestaurantStatsEvent.Key.class)
+public class RestaurantStatsEvent {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Id
+    private String status;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long orderId;
+        private String status;
+    }
+}
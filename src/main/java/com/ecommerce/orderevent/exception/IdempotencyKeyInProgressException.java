@@ -0,0 +1,7 @@
+package com.ecommerce.orderevent.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException{
+    public IdempotencyKeyInProgressException(String message){
+        super(message);
+    }
+}
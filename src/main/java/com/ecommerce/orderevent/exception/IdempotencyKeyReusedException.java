@@ -0,0 +1,7 @@
+package com.ecommerce.orderevent.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException{
+    public IdempotencyKeyReusedException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.orderevent.exception;
+
+public class InvalidExportFormatException extends RuntimeException{
+    public InvalidExportFormatException(String message){
+        super(message);
+    }
+}
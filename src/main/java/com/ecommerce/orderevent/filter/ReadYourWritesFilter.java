@@ -0,0 +1,37 @@
+package com.ecommerce.orderevent.filter;
+
+import com.ecommerce.orderevent.config.ReadYourWrites;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Pins a request to the primary database when it writes (any method but GET, HEAD or OPTIONS),
+ * so reads made after its own write see it, or when the client asks for it with the
+ * X-Read-Your-Writes header, e.g. on the status poll right after placing an order.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Read-Your-Writes";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (SAFE_METHODS.contains(request.getMethod()) && request.getHeader(HEADER) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (ReadYourWrites.Pin ignored = ReadYourWrites.pin()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
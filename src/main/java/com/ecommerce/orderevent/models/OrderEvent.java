@@ -1,8 +1,10 @@
 package com.ecommerce.orderevent.models;
 
+import com.ecommerce.orderevent.dtos.OrderLineDto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -14,4 +16,18 @@ public class OrderEvent {
     private Long restaurantId;
     private List<Long> menuItemIds;
     private String status; // CREATED, PAID, FAILED, DELIVERED
+    // order line snapshot, so consumers never look up menu items; null on events from older producers
+    private List<OrderLineDto> lines;
+    private Double totalPrice;
+    // when the order reached the status; null on events from older producers
+    private LocalDateTime occurredAt;
+
+    public OrderEvent(Long orderId, Long userId, Long restaurantId, List<Long> menuItemIds, String status) {
+        this(orderId, userId, restaurantId, menuItemIds, status, null, null);
+    }
+
+    public OrderEvent(Long orderId, Long userId, Long restaurantId, List<Long> menuItemIds, String status,
+                      List<OrderLineDto> lines, Double totalPrice) {
+        this(orderId, userId, restaurantId, menuItemIds, status, lines, totalPrice, null);
+    }
 }
@@ -0,0 +1,28 @@
+package com.ecommerce.orderevent.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of {@link OrderRepository#findDetailRowsById}: the order with its user and restaurant
+ * columns, repeated once per order line. Line columns are null for an order without lines.
+ */
+public interface OrderDetailRow {
+    Long getId();
+    LocalDateTime getOrderDate();
+    String getStatus();
+    Double getTotalPrice();
+
+    Long getUserId();
+    String getUserName();
+    String getUserEmail();
+
+    Long getRestaurantId();
+    String getRestaurantName();
+    String getRestaurantAddress();
+    String getRestaurantContact();
+
+    Long getMenuItemId();
+    String getItemName();
+    Double getUnitPrice();
+    Integer getQuantity();
+}
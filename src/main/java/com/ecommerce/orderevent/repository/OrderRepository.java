@@ -1,11 +1,235 @@
 package com.ecommerce.orderevent.repository;
 
+import com.ecommerce.orderevent.dtos.OrderSummaryDto;
 import com.ecommerce.orderevent.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
-    List<Order> findByRestaurantId(Long restaurantId);
+
+    @EntityGraph("Order.response")
+    Optional<Order> findForResponseById(Long id);
+
+    @EntityGraph("Order.response")
+    List<Order> findForResponseByRestaurantIdOrderByOrderDateDescIdDesc(Long restaurantId);
+
+    @EntityGraph("Order.response")
+    List<Order> findForResponseByUserIdOrderByOrderDateDescIdDesc(Long userId);
+
+    // Read-side queries below return DTOs or projections, never managed entities
+
+    @Query("""
+            SELECT o.id AS id, o.orderDate AS orderDate, o.status AS status, o.totalPrice AS totalPrice,
+                   u.id AS userId, u.name AS userName, u.email AS userEmail,
+                   r.id AS restaurantId, r.name AS restaurantName, r.address AS restaurantAddress,
+                   r.contact AS restaurantContact,
+                   l.menuItemId AS menuItemId, l.name AS itemName, l.unitPrice AS unitPrice, l.quantity AS quantity
+            FROM Order o
+            JOIN o.user u
+            JOIN o.restaurant r
+            LEFT JOIN o.items l
+            WHERE o.id = :orderId
+            """)
+    List<OrderDetailRow> findDetailRowsById(@Param("orderId") Long orderId);
+
+    @Query("SELECT o.status FROM Order o WHERE o.id = :orderId")
+    Optional<String> findStatusById(@Param("orderId") Long orderId);
+
+    @Query("""
+            SELECT new com.ecommerce.orderevent.dtos.OrderSummaryDto(
+                o.id, o.orderDate, o.status, o.totalPrice, o.user.id, o.restaurant.id)
+            FROM Order o
+            WHERE o.restaurant.id = :restaurantId
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<OrderSummaryDto> findSummariesByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    @Query("""
+            SELECT new com.ecommerce.orderevent.dtos.OrderSummaryDto(
+                o.id, o.orderDate, o.status, o.totalPrice, o.user.id, o.restaurant.id)
+            FROM Order o
+            WHERE o.user.id = :userId
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<OrderSummaryDto> findSummariesByUserId(@Param("userId") Long userId);
+
+    // Keyset pages, newest first. The redundant "orderDate <= :orderDate" lets the
+    // (restaurant_id|user_id, order_date, id) index start at the cursor instead of
+    // filtering every newer row, so deep pages cost the same as the first one.
+    @Query("""
+            SELECT new com.ecommerce.orderevent.dtos.OrderSummaryDto(
+                o.id, o.orderDate, o.status, o.totalPrice, o.user.id, o.restaurant.id)
+            FROM Order o
+            WHERE o.restaurant.id = :restaurantId
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<OrderSummaryDto> findFirstPageByRestaurantId(@Param("restaurantId") Long restaurantId, Pageable pageable);
+
+    @Query("""
+            SELECT new com.ecommerce.orderevent.dtos.OrderSummaryDto(
+                o.id, o.orderDate, o.status, o.totalPrice, o.user.id, o.restaurant.id)
+            FROM Order o
+            WHERE o.restaurant.id = :restaurantId
+              AND o.orderDate <= :orderDate
+              AND (o.orderDate < :orderDate OR o.id < :id)
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<OrderSummaryDto> findPageByRestaurantIdAfter(@Param("restaurantId") Long restaurantId,
+                                                      @Param("orderDate") LocalDateTime orderDate,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
+
+    @Query("""
+            SELECT new com.ecommerce.orderevent.dtos.OrderSummaryDto(
+                o.id, o.orderDate, o.status, o.totalPrice, o.user.id, o.restaurant.id)
+            FROM Order o
+            WHERE o.user.id = :userId
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<OrderSummaryDto> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("""
+            SELECT new com.ecommerce.orderevent.dtos.OrderSummaryDto(
+                o.id, o.orderDate, o.status, o.totalPrice, o.user.id, o.restaurant.id)
+            FROM Order o
+            WHERE o.user.id = :userId
+              AND o.orderDate <= :orderDate
+              AND (o.orderDate < :orderDate OR o.id < :id)
+            ORDER BY o.orderDate DESC, o.id DESC
+            """)
+    List<OrderSummaryDto> findPageByUserIdAfter(@Param("userId") Long userId,
+                                                @Param("orderDate") LocalDateTime orderDate,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
+    /**
+     * All of a restaurant's orders with {@code from <= orderDate < to}, oldest first, for exports.
+     * Rows come off a server-side cursor 1000 at a time and are never
+     * managed, so memory stays flat however many orders match. Must be consumed, and closed,
+     * inside a transaction: outside one the Postgres driver ignores the fetch size and buffers
+     * the whole result.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new com.ecommerce.orderevent.dtos.OrderSummaryDto(
+                o.id, o.orderDate, o.status, o.totalPrice, o.user.id, o.restaurant.id)
+            FROM Order o
+            WHERE o.restaurant.id = :restaurantId
+              AND o.orderDate >= :from
+              AND o.orderDate < :to
+            ORDER BY o.orderDate, o.id
+            """)
+    Stream<OrderSummaryDto> streamForExport(@Param("restaurantId") Long restaurantId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    /**
+     * Compare-and-set on the status column: moves the order to {@code to} only if it is still in
+     * one of {@code from}, and returns the event fields in the same round trip. Empty when the
+     * order does not exist or another request changed its status first.
+     */
+    @Query(value = """
+            WITH updated AS (
+                UPDATE orders SET status = :to
+                WHERE id = :orderId AND status IN (:from)
+                RETURNING id, user_id, restaurant_id, total_price
+            )
+            SELECT u.id AS orderId, u.user_id AS userId, u.restaurant_id AS restaurantId,
+                   u.total_price AS totalPrice,
+                   CAST(json_agg(json_build_object(
+                           'menuItemId', l.menu_item_id, 'name', l.name,
+                           'unitPrice', l.unit_price, 'quantity', l.quantity))
+                        FILTER (WHERE l.order_id IS NOT NULL) AS text) AS lines
+            FROM updated u
+            LEFT JOIN order_lines l ON l.order_id = u.id
+            GROUP BY u.id, u.user_id, u.restaurant_id, u.total_price
+            """, nativeQuery = true)
+    Optional<OrderStatusTransition> transitionStatus(@Param("orderId") Long orderId,
+                                                     @Param("from") Collection<String> from,
+                                                     @Param("to") String to);
+
+    // Legacy order_items join table, replaced by order_lines; absent on databases created since
+    @Query(value = "SELECT to_regclass('order_items') IS NOT NULL", nativeQuery = true)
+    boolean legacyOrderItemsTableExists();
+
+    // Serializes backfill batches across instances, released when the transaction ends
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(hashtext('order_lines_backfill'))) AS backfill_lock",
+            nativeQuery = true)
+    long lockOrderLinesBackfill();
+
+    /**
+     * Copies the items of up to {@code limit} orders that have no order_lines yet from order_items,
+     * with the menu's current name and price (the best that is left of what was ordered). An order
+     * gets all of its lines in one batch, so "has no lines" also means "not backfilled yet".
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO order_lines (order_id, menu_item_id, name, unit_price, quantity)
+            SELECT oi.order_id, m.id, m.name, COALESCE(m.price, 0), COUNT(*)
+            FROM order_items oi
+            JOIN menu_items m ON m.id = oi.menu_item_id
+            WHERE oi.order_id IN (
+                SELECT DISTINCT pending.order_id FROM order_items pending
+                WHERE NOT EXISTS (SELECT 1 FROM order_lines l WHERE l.order_id = pending.order_id)
+                ORDER BY pending.order_id
+                LIMIT :limit
+            )
+            GROUP BY oi.order_id, m.id, m.name, m.price
+            """, nativeQuery = true)
+    int backfillOrderLines(@Param("limit") int limit);
+
+    /**
+     * Removes the order_items rows of orders that have order_lines. Nothing reads them any more,
+     * and their foreign keys would otherwise block deleting those orders or their menu items.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM order_items oi
+            WHERE EXISTS (SELECT 1 FROM order_lines l WHERE l.order_id = oi.order_id)
+            """, nativeQuery = true)
+    int deleteBackfilledOrderItems();
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM order_items)", nativeQuery = true)
+    boolean legacyOrderItemsRemain();
+
+    // Takes the table's foreign keys to orders and menu_items with it
+    @Modifying
+    @Query(value = "DROP TABLE IF EXISTS order_items", nativeQuery = true)
+    void dropLegacyOrderItemsTable();
+
+    // Serializes the orders_seq check across instances, released when the transaction ends
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(hashtext('orders_seq_sync'))) AS sync_lock",
+            nativeQuery = true)
+    long lockOrdersSequence();
+
+    /**
+     * Moves orders_seq past the ids of orders inserted while ids were IDENTITY columns. Only fires
+     * while the sequence is behind, i.e. never used, or below the highest id, which cannot happen
+     * once every instance allocates from it; so it never moves a sequence in use backwards.
+     * The 50 is Order's allocationSize: Hibernate hands out the block ending at the returned value.
+     * Returns 1 if the sequence was moved.
+     */
+    @Query(value = """
+            SELECT COUNT(setval('orders_seq', o.max_id + 50))
+            FROM orders_seq s, (SELECT COALESCE(MAX(id), 0) AS max_id FROM orders) o
+            WHERE o.max_id > 0 AND (NOT s.is_called OR s.last_value < o.max_id)
+            """, nativeQuery = true)
+    long advanceOrdersSequence();
 }
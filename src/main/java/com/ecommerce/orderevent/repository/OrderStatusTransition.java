@@ -0,0 +1,13 @@
+package com.ecommerce.orderevent.repository;
+
+/**
+ * Row returned by {@link OrderRepository#transitionStatus}: what the order event needs,
+ * read in the same statement that changed the status.
+ */
+public interface OrderStatusTransition {
+    Long getOrderId();
+    Long getUserId();
+    Long getRestaurantId();
+    Double getTotalPrice();
+    String getLines(); // JSON array of OrderLineDto, null when the order has no lines
+}
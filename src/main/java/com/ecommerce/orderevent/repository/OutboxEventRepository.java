@@ -0,0 +1,19 @@
+package com.ecommerce.orderevent.repository;
+
+import com.ecommerce.orderevent.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // SKIP LOCKED lets several relay instances drain the outbox without blocking each other
+    @Query(value = "SELECT * FROM order_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+
+    @Query("select min(e.createdAt) from OutboxEvent e")
+    LocalDateTime findOldestCreatedAt();
+}
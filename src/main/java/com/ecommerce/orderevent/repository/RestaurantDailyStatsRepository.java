@@ -0,0 +1,37 @@
+package com.ecommerce.orderevent.repository;
+
+import com.ecommerce.orderevent.entity.RestaurantDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface RestaurantDailyStatsRepository extends JpaRepository<RestaurantDailyStats, RestaurantDailyStats.Key> {
+
+    // Adds the deltas to the day's row, creating it on the first flush of the day
+    @Modifying
+    @Query(value = """
+            INSERT INTO restaurant_daily_stats
+                (restaurant_id, stat_date, placed, accepted, rejected, paid, item_count, placed_value, revenue)
+            VALUES (:restaurantId, :statDate, :placed, :accepted, :rejected, :paid, :itemCount, :placedValue, :revenue)
+            ON CONFLICT (restaurant_id, stat_date) DO UPDATE SET
+                placed = restaurant_daily_stats.placed + EXCLUDED.placed,
+                accepted = restaurant_daily_stats.accepted + EXCLUDED.accepted,
+                rejected = restaurant_daily_stats.rejected + EXCLUDED.rejected,
+                paid = restaurant_daily_stats.paid + EXCLUDED.paid,
+                item_count = restaurant_daily_stats.item_count + EXCLUDED.item_count,
+                placed_value = restaurant_daily_stats.placed_value + EXCLUDED.placed_value,
+                revenue = restaurant_daily_stats.revenue + EXCLUDED.revenue
+            """, nativeQuery = true)
+    void addDeltas(@Param("restaurantId") Long restaurantId,
+                   @Param("statDate") LocalDate statDate,
+                   @Param("placed") long placed,
+                   @Param("accepted") long accepted,
+                   @Param("rejected") long rejected,
+                   @Param("paid") long paid,
+                   @Param("itemCount") long itemCount,
+                   @Param("placedValue") double placedValue,
+                   @Param("revenue") double revenue);
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.orderevent.repository;
+
+/**
+ * One row of the restaurant read queries in {@link RestaurantRepository}: the restaurant's
+ * columns, repeated once per menu item. Menu item columns are null for a restaurant without a menu.
+ */
+public interface RestaurantMenuRow {
+    Long getId();
+    String getName();
+    String getAddress();
+    String getContact();
+
+    Long getMenuItemId();
+    String getMenuItemName();
+    String getMenuItemDescription();
+    Double getMenuItemPrice();
+}
@@ -1,7 +1,38 @@
 package com.ecommerce.orderevent.repository;
 
 import com.ecommerce.orderevent.entity.Restaurant;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
+
+    @EntityGraph("Restaurant.menu")
+    Optional<Restaurant> findWithMenuById(Long id);
+
+    // Read-side queries: exactly the columns RestaurantResponseDto needs, restaurant and menu in one statement
+    @Query("""
+            SELECT r.id AS id, r.name AS name, r.address AS address, r.contact AS contact,
+                   m.id AS menuItemId, m.name AS menuItemName, m.description AS menuItemDescription,
+                   m.price AS menuItemPrice
+            FROM Restaurant r
+            LEFT JOIN r.menuItems m
+            WHERE r.id = :id
+            ORDER BY m.id
+            """)
+    List<RestaurantMenuRow> findMenuRowsById(@Param("id") Long id);
+
+    @Query("""
+            SELECT r.id AS id, r.name AS name, r.address AS address, r.contact AS contact,
+                   m.id AS menuItemId, m.name AS menuItemName, m.description AS menuItemDescription,
+                   m.price AS menuItemPrice
+            FROM Restaurant r
+            LEFT JOIN r.menuItems m
+            ORDER BY r.id, m.id
+            """)
+    List<RestaurantMenuRow> findAllMenuRows();
 }
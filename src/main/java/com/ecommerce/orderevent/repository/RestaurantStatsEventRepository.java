@@ -0,0 +1,27 @@
+package com.ecommerce.orderevent.repository;
+
+import com.ecommerce.orderevent.entity.RestaurantStatsEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface RestaurantStatsEventRepository extends JpaRepository<RestaurantStatsEvent, RestaurantStatsEvent.Key> {
+
+    // 1 the first time an event is marked, 0 for a redelivery or replay
+    @Modifying
+    @Query(value = """
+            INSERT INTO restaurant_stats_events (order_id, status, stat_date)
+            VALUES (:orderId, :status, :statDate)
+            ON CONFLICT (order_id, status) DO NOTHING
+            """, nativeQuery = true)
+    int markCounted(@Param("orderId") Long orderId,
+                    @Param("status") String status,
+                    @Param("statDate") LocalDate statDate);
+
+    @Modifying
+    @Query("DELETE FROM RestaurantStatsEvent e WHERE e.statDate < :before")
+    int deleteCountedBefore(@Param("before") LocalDate before);
+}
@@ -0,0 +1,233 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.exception.IdempotencyKeyInProgressException;
+import com.ecommerce.orderevent.exception.IdempotencyKeyReusedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static com.ecommerce.orderevent.constants.ErrorMessages.IDEMPOTENCY_KEY_IN_PROGRESS;
+import static com.ecommerce.orderevent.constants.ErrorMessages.IDEMPOTENCY_KEY_REUSED;
+
+/**
+ * Runs an action at most once per idempotency key and replays its result for the key's TTL.
+ * The first request claims the key in Redis with a short-lived PENDING marker (SET NX), runs
+ * the action and overwrites the marker with the JSON result. Duplicates that arrive while the
+ * marker is pending poll until the result appears; if the first request fails the marker is
+ * released and the next duplicate takes over.
+ * Marker and result carry a fingerprint of the request body, and a key reused with a different
+ * body is rejected instead of replaying the first result. Storing the result is retried, because
+ * once the marker expires without a result a retry would run the action again.
+ * When Redis is unreachable keys are tracked in process instead, which still absorbs retries
+ * that land on the same instance.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    private static final String KEY_PREFIX = "idempotency:";
+    static final String PENDING = "PENDING";
+    private static final String DONE = "DONE";
+    private static final int STORE_ATTEMPTS = 3;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration resultTtl;
+    private final Duration pendingTtl;
+    private final long waitTimeoutMs;
+    private final long pollIntervalMs;
+    private final Cache<String, LocalClaim> localResults;
+
+    public IdempotencyService(RedisTemplate<String, Object> redisTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.result-ttl-seconds:86400}") long resultTtlSeconds,
+                              @Value("${idempotency.pending-ttl-seconds:30}") long pendingTtlSeconds,
+                              @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+                              @Value("${idempotency.poll-interval-ms:50}") long pollIntervalMs) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.resultTtl = Duration.ofSeconds(resultTtlSeconds);
+        this.pendingTtl = Duration.ofSeconds(pendingTtlSeconds);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.pollIntervalMs = pollIntervalMs;
+        this.localResults = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(resultTtl)
+                .build();
+    }
+
+    public <T> T execute(String key, Object request, Class<T> type, Supplier<T> action) {
+        String redisKey = KEY_PREFIX + key;
+        String fingerprint = fingerprint(request);
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            boolean claimed;
+            String stored = null;
+            // only the Redis calls: a DataAccessException from the action itself must reach the caller, not run it again
+            try {
+                claimed = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, pending(fingerprint), pendingTtl));
+                if (!claimed) {
+                    stored = (String) redisTemplate.opsForValue().get(redisKey);
+                }
+            } catch (DataAccessException e) {
+                log.warn("⚠️ Redis unavailable, tracking idempotency key {} in process", key, e);
+                return executeLocally(redisKey, fingerprint, type, action, deadline);
+            }
+            if (claimed) {
+                return runAndStore(redisKey, fingerprint, type, action);
+            }
+            // stored == null: the first request failed and released the key, so claim it again
+            if (stored == null) {
+                continue;
+            }
+            Stored entry = Stored.parse(stored);
+            if (entry.fingerprint() != null && !entry.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException(IDEMPOTENCY_KEY_REUSED + key);
+            }
+            if (entry.result() != null) {
+                log.info("🔁 Replaying stored result for idempotency key {}", key);
+                return read(entry.result(), type);
+            }
+            awaitNextPoll(key, deadline);
+        }
+    }
+
+    private <T> T runAndStore(String redisKey, String fingerprint, Class<T> type, Supplier<T> action) {
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            release(redisKey);
+            throw e;
+        }
+        String value;
+        try {
+            value = DONE + ":" + fingerprint + ":" + objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            throw new IllegalStateException("Idempotent result could not be written", e);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                redisTemplate.opsForValue().set(redisKey, value, resultTtl);
+                return result;
+            } catch (Exception e) {
+                if (attempt == STORE_ATTEMPTS) {
+                    // the action has run and cannot be undone: answer it, but a retry after the marker expires runs it again
+                    log.error("❌ Failed to store result for idempotency key {} after {} attempts, "
+                            + "a retry after {}s will run it again", redisKey, attempt, pendingTtl.toSeconds(), e);
+                    return result;
+                }
+                log.warn("⚠️ Failed to store result for idempotency key {}, retrying", redisKey, e);
+                sleep(pollIntervalMs * attempt, redisKey);
+            }
+        }
+    }
+
+    private void release(String redisKey) {
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (DataAccessException e) {
+            log.error("❌ Failed to release idempotency key {}", redisKey, e);
+        }
+    }
+
+    private <T> T executeLocally(String redisKey, String fingerprint, Class<T> type, Supplier<T> action, long deadline) {
+        while (true) {
+            LocalClaim claim = new LocalClaim(fingerprint, new CompletableFuture<>());
+            LocalClaim existing = localResults.asMap().putIfAbsent(redisKey, claim);
+            if (existing == null) {
+                try {
+                    T result = action.get();
+                    claim.result().complete(result);
+                    return result;
+                } catch (RuntimeException e) {
+                    localResults.asMap().remove(redisKey, claim);
+                    claim.result().completeExceptionally(e);
+                    throw e;
+                }
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException(IDEMPOTENCY_KEY_REUSED + redisKey.substring(KEY_PREFIX.length()));
+            }
+            try {
+                return type.cast(existing.result().get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+            } catch (ExecutionException e) {
+                // the first request failed and released the key, so claim it again
+            } catch (TimeoutException e) {
+                throw new IdempotencyKeyInProgressException(IDEMPOTENCY_KEY_IN_PROGRESS + redisKey.substring(KEY_PREFIX.length()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for idempotency key " + redisKey, e);
+            }
+        }
+    }
+
+    private void awaitNextPoll(String key, long deadline) {
+        if (System.currentTimeMillis() >= deadline) {
+            throw new IdempotencyKeyInProgressException(IDEMPOTENCY_KEY_IN_PROGRESS + key);
+        }
+        sleep(pollIntervalMs, key);
+    }
+
+    private static void sleep(long millis, String key) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotency key " + key, e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (Exception e) {
+            throw new IllegalStateException("Stored idempotent result could not be read", e);
+        }
+    }
+
+    String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (Exception e) {
+            throw new IllegalStateException("Request could not be fingerprinted", e);
+        }
+    }
+
+    private static String pending(String fingerprint) {
+        return PENDING + ":" + fingerprint;
+    }
+
+    private record LocalClaim(String fingerprint, CompletableFuture<Object> result) {}
+
+    // "PENDING:<fingerprint>" or "DONE:<fingerprint>:<json>"; bare "PENDING" and bare JSON were written before fingerprints
+    private record Stored(String fingerprint, String result) {
+        static Stored parse(String value) {
+            if (value.equals(PENDING)) {
+                return new Stored(null, null);
+            }
+            if (value.startsWith(PENDING + ":")) {
+                return new Stored(value.substring(PENDING.length() + 1), null);
+            }
+            if (value.startsWith(DONE + ":")) {
+                int end = value.indexOf(':', DONE.length() + 1);
+                return new Stored(value.substring(DONE.length() + 1, end), value.substring(end + 1));
+            }
+            return new Stored(null, value);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.ecommerce.orderevent.service;
 
+import com.ecommerce.orderevent.cache.CacheValueCodec;
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
+import com.ecommerce.orderevent.cache.RestaurantLocalCache;
+import com.ecommerce.orderevent.cache.RestaurantVersions;
 import com.ecommerce.orderevent.dtos.MenuItemRequestDto;
 import com.ecommerce.orderevent.dtos.MenuItemResponseDto;
 import com.ecommerce.orderevent.entity.MenuItem;
@@ -7,19 +11,46 @@ import com.ecommerce.orderevent.entity.Restaurant;
 import com.ecommerce.orderevent.exception.ResourceNotFoundException;
 import com.ecommerce.orderevent.repository.MenuItemRepository;
 import com.ecommerce.orderevent.repository.RestaurantRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.*;
+import java.util.function.Supplier;
+import static com.ecommerce.orderevent.constants.CacheKeys.MENU;
+import static com.ecommerce.orderevent.constants.CacheKeys.MENU_ITEM;
 import static com.ecommerce.orderevent.constants.ErrorMessages.MENU_ITEM_NOT_FOUND;
 import static com.ecommerce.orderevent.constants.ErrorMessages.RESTAURANT_NOT_FOUND;
 
 @Service
+@Slf4j
 public class MenuItemService {
+    // evicted by every menu and restaurant write, see RestaurantService.evictCachedRestaurant;
+    // fills that raced such a write are dropped again, see RestaurantService.fillIfUnchanged
+    private static final long MENU_CACHE_TTL = 60;
+
     private final MenuItemRepository menuItemRepository;
     private final RestaurantRepository restaurantRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final RestaurantService restaurantService;
+    private final RedisTemplate<String, byte[]> cacheRedisTemplate;
+    private final CacheValueCodec cacheValueCodec;
+    private final RestaurantLocalCache restaurantLocalCache;
+    private final RestaurantVersions restaurantVersions;
 
-    public MenuItemService(MenuItemRepository menuItemRepository, RestaurantRepository restaurantRepository){
+    public MenuItemService(MenuItemRepository menuItemRepository, RestaurantRepository restaurantRepository,
+                           ReferenceDataCache referenceDataCache, RestaurantService restaurantService,
+                           RedisTemplate<String, byte[]> cacheRedisTemplate, CacheValueCodec cacheValueCodec,
+                           RestaurantLocalCache restaurantLocalCache, RestaurantVersions restaurantVersions){
         this.menuItemRepository=menuItemRepository;
         this.restaurantRepository=restaurantRepository;
+        this.referenceDataCache=referenceDataCache;
+        this.restaurantService=restaurantService;
+        this.cacheRedisTemplate=cacheRedisTemplate;
+        this.cacheValueCodec=cacheValueCodec;
+        this.restaurantLocalCache=restaurantLocalCache;
+        this.restaurantVersions=restaurantVersions;
     }
 
     public MenuItemResponseDto addMenuItem(Long restaurantId, MenuItemRequestDto menuItemRequestDto){
@@ -33,6 +64,7 @@ public class MenuItemService {
         menuItem.setRestaurant(restaurant);
 
         MenuItem saveMenuItem = menuItemRepository.save(menuItem);
+        restaurantService.evictCachedRestaurant(restaurantId);
         return MenuItemResponseDto.fromEntity(saveMenuItem);
     }
 
@@ -40,6 +72,7 @@ public class MenuItemService {
         MenuItem menuItem = menuItemRepository.findById(id)
                 .orElseThrow(()-> new ResourceNotFoundException(MENU_ITEM_NOT_FOUND + id));
 
+        Long previousRestaurantId = restaurantIdOf(menuItem);
         menuItem.setName(menuItemRequestDto.getName());
         menuItem.setDescription(menuItemRequestDto.getDescription());
         menuItem.setPrice(menuItemRequestDto.getPrice());
@@ -50,22 +83,110 @@ public class MenuItemService {
         }
 
         MenuItem saveMenuItem = menuItemRepository.save(menuItem);
+        referenceDataCache.evictMenuItem(id);
+        // a moved item changes both menus
+        Long restaurantId = restaurantIdOf(saveMenuItem);
+        if (previousRestaurantId != null && !previousRestaurantId.equals(restaurantId)) {
+            restaurantService.evictCachedRestaurant(previousRestaurantId);
+        }
+        if (restaurantId != null) {
+            restaurantService.evictCachedRestaurant(restaurantId);
+        }
+        restaurantService.evictCachedMenuItems(List.of(id));
         return MenuItemResponseDto.fromEntity(saveMenuItem);
     }
 
+    /*
+     * Menu reads go through the same tiers as the restaurants: local cache, Redis, then Postgres.
+     * Cached items are detached copies without their restaurant, which @JsonBackReference leaves
+     * out of the response anyway, so the JSON is unchanged. Callers must not modify them.
+     * Like the restaurant reads these are not read-only, so cache fills come from the primary.
+     */
+
+    @Transactional
     public List<MenuItem> getMenuItemsByRestaurant(Long restaurantId) {
+        String key = MENU + restaurantId;
+        return restaurantLocalCache.get(key, () -> loadMenu(key, restaurantId));
+    }
+
+    @Transactional
+    public MenuItem findMenuItem(Long menuId) {
+        String key = MENU_ITEM + menuId;
+        return restaurantLocalCache.get(key, () -> loadMenuItem(key, menuId));
+    }
+
+    private List<MenuItem> loadMenu(String key, Long restaurantId) {
+        List<MenuItem> cached = readCache(key, new TypeReference<List<MenuItem>>() {});
+        if (cached != null) {
+            return List.copyOf(cached);
+        }
+        String version = restaurantVersions.peek(restaurantId);
         Restaurant restaurant = restaurantRepository.findById(restaurantId)
                 .orElseThrow(() ->  new ResourceNotFoundException( RESTAURANT_NOT_FOUND + restaurantId));
-        return restaurant.getMenuItems();
+        List<MenuItem> menu = restaurant.getMenuItems() == null ? List.of()
+                : restaurant.getMenuItems().stream().map(MenuItemService::detached).toList();
+        writeCache(key, menu, version, () -> restaurantVersions.peek(restaurantId));
+        return menu;
     }
 
-    public MenuItem findMenuItem(Long menuId) {
-        return menuItemRepository.findById(menuId)
+    private MenuItem loadMenuItem(String key, Long menuId) {
+        MenuItem cached = readCache(key, new TypeReference<MenuItem>() {});
+        if (cached != null) {
+            return cached;
+        }
+        // the item's restaurant is only known after the load, but every item write bumps the list version
+        String version = restaurantVersions.peekList();
+        MenuItem menuItem = menuItemRepository.findById(menuId)
+                .map(MenuItemService::detached)
                 .orElseThrow(() -> new ResourceNotFoundException(MENU_ITEM_NOT_FOUND + menuId));
+        writeCache(key, menuItem, version, restaurantVersions::peekList);
+        return menuItem;
+    }
+
+    private <T> T readCache(String key, TypeReference<T> type) {
+        try {
+            byte[] cached = cacheRedisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                log.info("✅ Fetched {} from Redis Cache", key);
+                return cacheValueCodec.decode(cached, type);
+            }
+        } catch (Exception e) {
+            log.error("❌ Failed to deserialize cached {}", key, e);
+        }
+        return null;
+    }
+
+    private void writeCache(String key, Object value, String versionBeforeLoad, Supplier<String> currentVersion) {
+        try {
+            restaurantService.fillIfUnchanged(key, cacheValueCodec.encode(value), MENU_CACHE_TTL,
+                    versionBeforeLoad, currentVersion);
+        } catch (Exception e) {
+            log.error("❌ Failed to serialize {}", key, e);
+        }
+    }
+
+    private static MenuItem detached(MenuItem menuItem) {
+        MenuItem copy = new MenuItem();
+        copy.setId(menuItem.getId());
+        copy.setName(menuItem.getName());
+        copy.setDescription(menuItem.getDescription());
+        copy.setPrice(menuItem.getPrice());
+        return copy;
     }
 
     public void deleteMenuItem(Long id){
-        if(!menuItemRepository.existsById(id)) throw new ResourceNotFoundException(MENU_ITEM_NOT_FOUND + id);
+        MenuItem menuItem = menuItemRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(MENU_ITEM_NOT_FOUND + id));
         menuItemRepository.deleteById(id);
+        referenceDataCache.evictMenuItem(id);
+        Long restaurantId = restaurantIdOf(menuItem);
+        if (restaurantId != null) {
+            restaurantService.evictCachedRestaurant(restaurantId);
+        }
+        restaurantService.evictCachedMenuItems(List.of(id));
+    }
+
+    private static Long restaurantIdOf(MenuItem menuItem) {
+        return menuItem.getRestaurant() != null ? menuItem.getRestaurant().getId() : null;
     }
 }
@@ -6,6 +6,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import static com.ecommerce.orderevent.constants.KafkaTopics.ORDER_EVENTS;
+
 @Service
 public class NotificationListener {
 
@@ -17,7 +19,7 @@ public class NotificationListener {
         this.notificationService = notificationService;
     }
 
-    @KafkaListener(topics = "order-events", groupId = "notification-service")
+    @KafkaListener(topics = ORDER_EVENTS, groupId = "notification-service")
     public void consume(OrderEvent event) {
         log.info("📩 Received order event: {}", event);
         notificationService.processNotification(event);
@@ -1,6 +1,7 @@
 package com.ecommerce.orderevent.service;
 
-import com.ecommerce.orderevent.entity.MenuItem;
+import com.ecommerce.orderevent.dtos.OrderLineDto;
+import com.ecommerce.orderevent.entity.OrderLine;
 import com.ecommerce.orderevent.entity.Restaurant;
 import com.ecommerce.orderevent.entity.User;
 import com.ecommerce.orderevent.exception.ResourceNotFoundException;
@@ -34,26 +35,35 @@ public class NotificationService {
         this.menuItemRepository = menuItemRepository;
     }
 
-    private String buildItemDetails(List<MenuItem> items) {
+    private String buildItemDetails(List<OrderLineDto> lines) {
         StringBuilder sb = new StringBuilder();
         sb.append("<table style=\"width:100%;border-collapse:collapse;\">")
                 .append("<thead><tr><th style=\"text-align:left;padding:8px;border-bottom:1px solid #ddd;\">Item</th>")
                 .append("<th style=\"text-align:right;padding:8px;border-bottom:1px solid #ddd;\">Price</th></tr></thead><tbody>");
-        for (MenuItem item : items) {
+        for (OrderLineDto line : lines) {
+            String name = line.getQuantity() > 1 ? line.getName() + " × " + line.getQuantity() : line.getName();
             sb.append("<tr>")
-                    .append("<td style=\"padding:8px;border-bottom:1px solid #eee;\">").append(item.getName()).append("</td>")
-                    .append("<td style=\"padding:8px;border-bottom:1px solid #eee;text-align:right;\">₹").append(item.getPrice()).append("</td>")
+                    .append("<td style=\"padding:8px;border-bottom:1px solid #eee;\">").append(name).append("</td>")
+                    .append("<td style=\"padding:8px;border-bottom:1px solid #eee;text-align:right;\">₹").append(line.getUnitPrice() * line.getQuantity()).append("</td>")
                     .append("</tr>");
         }
         sb.append("</tbody></table>");
         return sb.toString();
     }
 
+    // Events written before order lines were snapshotted carry only item ids
+    private List<OrderLineDto> currentMenuLines(OrderEvent event) {
+        return menuItemRepository.findAllById(event.getMenuItemIds()).stream()
+                .map(item -> OrderLineDto.fromEntity(OrderLine.of(item)))
+                .toList();
+    }
+
     public void processNotification(OrderEvent event) {
         try {
-            List<MenuItem> items = menuItemRepository.findAllById(event.getMenuItemIds());
-            String itemDetails = buildItemDetails(items);
-            double totalPrice = items.stream().mapToDouble(MenuItem::getPrice).sum();
+            List<OrderLineDto> lines = event.getLines() != null ? event.getLines() : currentMenuLines(event);
+            String itemDetails = buildItemDetails(lines);
+            double totalPrice = event.getTotalPrice() != null ? event.getTotalPrice()
+                    : lines.stream().mapToDouble(line -> line.getUnitPrice() * line.getQuantity()).sum();
 
             User user = userRepository.findById(event.getUserId())
                     .orElseThrow(() -> new ResourceNotFoundException(USER_NOT_FOUND + event.getUserId()));
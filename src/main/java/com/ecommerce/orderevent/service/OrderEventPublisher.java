@@ -0,0 +1,56 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.models.OrderEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking publisher for order events. Completions are handled on the producer's
+ * I/O thread: acknowledgements and failures are counted and failures logged. Transient
+ * broker errors are retried inside the idempotent producer until the delivery timeout;
+ * anything that still fails is retried by the outbox relay, which keeps the event until
+ * it is acknowledged.
+ */
+@Service
+@Slf4j
+public class OrderEventPublisher {
+
+    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+    public OrderEventPublisher(KafkaTemplate<String, OrderEvent> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.sentCounter = Counter.builder("order.events.sent")
+                .description("Order events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("order.events.failed")
+                .description("Order events Kafka did not acknowledge")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<SendResult<String, OrderEvent>> publish(String topic, OrderEvent event) {
+        CompletableFuture<SendResult<String, OrderEvent>> send;
+        try {
+            // keyed by order id: every event of one order lands on the same partition, in order
+            send = kafkaTemplate.send(topic, String.valueOf(event.getOrderId()), event);
+        } catch (Exception e) {
+            // send() itself throws when the producer buffer stays full past max.block.ms
+            send = CompletableFuture.failedFuture(e);
+        }
+        return send.whenComplete((result, ex) -> {
+            if (ex == null) {
+                sentCounter.increment();
+            } else {
+                failedCounter.increment();
+                log.error("❌ Failed to publish order event {} to {}: {}", event, topic, ex.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,215 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.constants.OrderStatus;
+import com.ecommerce.orderevent.dtos.OrderStatusEventDto;
+import com.ecommerce.orderevent.models.OrderEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ecommerce.orderevent.constants.KafkaTopics.ORDER_EVENTS;
+
+/**
+ * Pushes order status transitions to clients subscribed on {@code GET /orders/{id}/events}.
+ * Subscribers are held in memory, so every instance reads all events. It does so without a consumer
+ * group: every partition is assigned directly and read from the latest offset, and nothing is
+ * committed, so restarts and rescheduled pods leave no groups behind. The partition list comes
+ * from {@code kafka.topics.order-events.partitions}, so it must follow the topic when partitions
+ * are added. The Kafka thread only queues events: each connection has a small buffer drained by a
+ * shared sender pool, and a connection whose buffer overflows is closed so one slow client cannot
+ * hold up the others. Heartbeat comments keep idle connections open through proxies; between
+ * events a connection holds no thread at all.
+ */
+@Slf4j
+@Service
+public class OrderEventStreamService {
+
+    private final OrderService orderService;
+    private final Executor sender;
+    private final long timeoutMs;
+    private final int bufferSize;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @Autowired
+    public OrderEventStreamService(OrderService orderService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${sse.timeout-ms:1800000}") long timeoutMs,
+                                   @Value("${sse.buffer-size:16}") int bufferSize,
+                                   @Value("${sse.sender-threads:4}") int senderThreads) {
+        this(orderService, meterRegistry, timeoutMs, bufferSize, Executors.newFixedThreadPool(senderThreads, senderThreadFactory()));
+    }
+
+    OrderEventStreamService(OrderService orderService, MeterRegistry meterRegistry,
+                            long timeoutMs, int bufferSize, Executor sender) {
+        this.orderService = orderService;
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.sender = sender;
+        Gauge.builder("order.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open order status event streams on this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream that starts with the order's current status and then receives every later
+     * transition. It is completed after a final status (REJECTED, PAYMENT_SUCCESS). Unknown
+     * orders fail with the usual 404 before anything is streamed.
+     */
+    public SseEmitter subscribe(Long orderId) {
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(orderId, emitter);
+        // registered before the status is read, so no transition can fall in between
+        subscribers.computeIfAbsent(orderId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(e -> subscriber.remove());
+        try {
+            subscriber.offerStatus(orderService.getOrderStatus(orderId));
+        } catch (RuntimeException e) {
+            subscriber.remove();
+            throw e;
+        }
+        return emitter;
+    }
+
+    @KafkaListener(containerFactory = "broadcastContainerFactory",
+            topicPartitions = @TopicPartition(topic = ORDER_EVENTS,
+                    partitions = "#{'0-' + (${kafka.topics.order-events.partitions:6} - 1)}"))
+    public void consume(OrderEvent event) {
+        Set<Subscriber> listeners = subscribers.get(event.getOrderId());
+        if (listeners != null) {
+            listeners.forEach(subscriber -> subscriber.offerStatus(event.getStatus()));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(
+                subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat"), false)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private static ThreadFactory senderThreadFactory() {
+        AtomicInteger threads = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "order-events-sse-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Outgoing(SseEmitter.SseEventBuilder event, boolean last) {}
+
+    private final class Subscriber {
+        private final Long orderId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Outgoing> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private String lastStatus; // guarded by this
+
+        private Subscriber(Long orderId, SseEmitter emitter) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+        }
+
+        // Drops repeats and anything older than what was already sent, e.g. a status read racing a live event
+        private synchronized void offerStatus(String status) {
+            if (status == null || removed.get()) {
+                return;
+            }
+            if (lastStatus != null && !OrderStatus.precedes(lastStatus, status)) {
+                return;
+            }
+            lastStatus = status;
+            offer(SseEmitter.event()
+                    .name("status")
+                    .id(status)
+                    .data(new OrderStatusEventDto(orderId, status)), OrderStatus.isFinal(status));
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event, boolean last) {
+            if (removed.get()) {
+                return;
+            }
+            if (!buffer.offer(new Outgoing(event, last))) {
+                log.warn("⚠️ Closing slow event stream of order {}: {} events pending", orderId, buffer.size());
+                remove();
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Outgoing next;
+                while ((next = buffer.poll()) != null) {
+                    emitter.send(next.event());
+                    if (next.last()) {
+                        remove();
+                        emitter.complete();
+                        return;
+                    }
+                }
+            } catch (Exception e) {
+                // client went away; the container reports it through onError as well
+                log.debug("Event stream of order {} closed: {}", orderId, e.getMessage());
+                remove();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // an offer that raced the end of the loop saw draining still set
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void remove() {
+            if (!removed.compareAndSet(false, true)) {
+                return;
+            }
+            buffer.clear();
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(orderId, (id, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
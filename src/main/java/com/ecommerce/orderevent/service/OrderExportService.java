@@ -0,0 +1,149 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
+import com.ecommerce.orderevent.dtos.OrderSummaryDto;
+import com.ecommerce.orderevent.exception.InvalidExportFormatException;
+import com.ecommerce.orderevent.exception.ResourceNotFoundException;
+import com.ecommerce.orderevent.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static com.ecommerce.orderevent.constants.ErrorMessages.INVALID_EXPORT_FORMAT;
+import static com.ecommerce.orderevent.constants.ErrorMessages.RESTAURANT_NOT_FOUND;
+
+/**
+ * Writes a restaurant's order history straight to the response as NDJSON or CSV. Rows are read
+ * from a database cursor and written one by one, so heap use does not grow with the export size.
+ */
+@Slf4j
+@Service
+public class OrderExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        // NDJSON when no format was asked for; any case of a known extension otherwise
+        public static Format of(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+            throw new InvalidExportFormatException(INVALID_EXPORT_FORMAT + value);
+        }
+    }
+
+    static final String CSV_HEADER = "id,orderDate,status,totalPrice,userId,restaurantId";
+
+    // open-ended ranges still go through the indexed range predicate
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final OrderRepository orderRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final ObjectWriter summaryWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OrderExportService(OrderRepository orderRepository,
+                              ReferenceDataCache referenceDataCache,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.summaryWriter = objectMapper.writerFor(OrderSummaryDto.class);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Orders of {@code restaurantId} placed between {@code from} and {@code to} (both inclusive,
+     * either may be null), oldest first. The restaurant is checked here so a bad id is still a
+     * 404; the rows themselves are only read once the returned body is written, on the MVC
+     * async thread and inside its own read-only transaction.
+     */
+    public StreamingResponseBody export(Long restaurantId, LocalDate from, LocalDate to, Format format) {
+        referenceDataCache.getRestaurant(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException(RESTAURANT_NOT_FOUND + restaurantId));
+        LocalDateTime start = from != null ? from.atStartOfDay() : MIN_DATE;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : MAX_DATE;
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderSummaryDto> rows = orderRepository.streamForExport(restaurantId, start, end)) {
+                long written = write(rows.iterator(), format, out);
+                log.info("📤 Exported {} orders of restaurant {} as {}", written, restaurantId, format);
+            } catch (IOException e) {
+                // usually the client went away; closing the stream releases the cursor
+                throw new UncheckedIOException("Order export of restaurant " + restaurantId + " aborted", e);
+            }
+        });
+    }
+
+    long write(Iterator<OrderSummaryDto> rows, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long count = 0;
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        while (rows.hasNext()) {
+            OrderSummaryDto row = rows.next();
+            writer.write(format == Format.CSV ? toCsv(row) : summaryWriter.writeValueAsString(row));
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static String toCsv(OrderSummaryDto row) {
+        return String.join(",",
+                csvField(row.getId()),
+                csvField(row.getOrderDate()),
+                csvField(row.getStatus()),
+                csvField(row.getTotalPrice()),
+                csvField(row.getUserId()),
+                csvField(row.getRestaurantId()));
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
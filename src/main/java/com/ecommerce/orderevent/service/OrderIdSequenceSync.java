@@ -0,0 +1,48 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-off alignment of orders_seq on databases that have orders from before order ids came from
+ * a sequence. ddl-auto creates the sequence starting at 1, so without this the first inserts
+ * would collide with existing ids. Runs on startup, before readiness; on an aligned database it
+ * is a single cheap query.
+ */
+@Slf4j
+@Component
+@Order(0) // ahead of the other startup runners
+public class OrderIdSequenceSync implements ApplicationRunner {
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderIdSequenceSync(OrderRepository orderRepository, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        sync();
+    }
+
+    boolean sync() {
+        Long moved = transactionTemplate.execute(status -> {
+            // two instances moving it from the same stale reading could set it back past ids already handed out
+            orderRepository.lockOrdersSequence();
+            return orderRepository.advanceOrdersSequence();
+        });
+        if (moved != null && moved > 0) {
+            log.info("🔢 Moved orders_seq past the existing order ids");
+            return true;
+        }
+        return false;
+    }
+}
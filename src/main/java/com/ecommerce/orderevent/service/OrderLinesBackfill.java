@@ -0,0 +1,75 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-off backfill of order_lines for orders placed before lines were snapshotted, which only
+ * have rows in the legacy order_items join table. Without it their status events carry no lines
+ * and their details show no items. Runs on startup, before readiness, in batches that each commit
+ * on their own, so an interrupted run simply continues on the next startup. Each batch deletes the
+ * order_items rows it copied, whose foreign keys would otherwise block deleting those orders and
+ * their menu items, and the emptied table is dropped at the end. After that, or on a database that
+ * never had order_items, it is a single cheap query.
+ */
+@Slf4j
+@Component
+@Order(0) // ahead of the other startup runners
+public class OrderLinesBackfill implements ApplicationRunner {
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OrderLinesBackfill(OrderRepository orderRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${order-lines.backfill.batch-size:1000}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        backfill();
+    }
+
+    int backfill() {
+        if (!orderRepository.legacyOrderItemsTableExists()) {
+            return 0;
+        }
+        int total = 0;
+        int inserted;
+        do {
+            inserted = transactionTemplate.execute(status -> {
+                // another instance backfilling the same batch would duplicate its lines
+                orderRepository.lockOrderLinesBackfill();
+                int lines = orderRepository.backfillOrderLines(batchSize);
+                orderRepository.deleteBackfilledOrderItems();
+                return lines;
+            });
+            total += inserted;
+        } while (inserted > 0);
+        if (total > 0) {
+            log.info("🧾 Backfilled {} order lines from order_items", total);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.lockOrderLinesBackfill();
+            // rows left behind could not be joined to a menu item; keep them for inspection
+            if (orderRepository.legacyOrderItemsRemain()) {
+                log.warn("⚠️ order_items still has rows that could not be backfilled, keeping the table");
+            } else {
+                orderRepository.dropLegacyOrderItemsTable();
+                log.info("🧾 Dropped the legacy order_items table");
+            }
+        });
+        return total;
+    }
+}
@@ -1,112 +1,386 @@
 package com.ecommerce.orderevent.service;
 
+import com.ecommerce.orderevent.cache.OrderStatusCache;
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
+import com.ecommerce.orderevent.cache.ReferenceDataCache.MenuItemRef;
+import com.ecommerce.orderevent.cache.ReferenceDataCache.RestaurantRef;
+import com.ecommerce.orderevent.cache.ReferenceDataCache.UserRef;
+import com.ecommerce.orderevent.constants.OrderStatus;
+import com.ecommerce.orderevent.dtos.BatchOrderResultDto;
+import com.ecommerce.orderevent.dtos.OrderLineDto;
+import com.ecommerce.orderevent.dtos.OrderPageDto;
 import com.ecommerce.orderevent.dtos.OrderRequestDto;
 import com.ecommerce.orderevent.dtos.OrderResponseDto;
+import com.ecommerce.orderevent.dtos.OrderSummaryDto;
+import com.ecommerce.orderevent.dtos.RestaurantResponseDto;
+import com.ecommerce.orderevent.dtos.UserResponseDto;
 import com.ecommerce.orderevent.entity.MenuItem;
 import com.ecommerce.orderevent.entity.Order;
+import com.ecommerce.orderevent.entity.OrderLine;
 import com.ecommerce.orderevent.entity.Restaurant;
 import com.ecommerce.orderevent.entity.User;
 import com.ecommerce.orderevent.exception.ResourceNotFoundException;
 import com.ecommerce.orderevent.models.OrderEvent;
 import com.ecommerce.orderevent.repository.MenuItemRepository;
+import com.ecommerce.orderevent.repository.OrderDetailRow;
 import com.ecommerce.orderevent.repository.OrderRepository;
+import com.ecommerce.orderevent.repository.OrderStatusTransition;
 import com.ecommerce.orderevent.repository.RestaurantRepository;
 import com.ecommerce.orderevent.repository.UserRepository;
-import org.springframework.kafka.core.KafkaTemplate;
+import com.ecommerce.orderevent.utils.OrderCursor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import static com.ecommerce.orderevent.constants.ErrorMessages.*;
 
 @Service
 public class OrderService {
-
-    private static final String ORDER_TOPIC = "order-events";
+    public static final int MAX_PAGE_SIZE = 100;
 
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final RestaurantRepository restaurantRepository;
     private final MenuItemRepository menuItemRepository;
-    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final OutboxService outboxService;
+    private final ReferenceDataCache referenceDataCache;
+    private final OrderStatusCache orderStatusCache;
+    private final ObjectMapper objectMapper;
 
     public OrderService(OrderRepository orderRepository,
                         UserRepository userRepository,
                         RestaurantRepository restaurantRepository,
                         MenuItemRepository menuItemRepository,
-                        KafkaTemplate<String, OrderEvent> kafkaTemplate){
+                        OutboxService outboxService,
+                        ReferenceDataCache referenceDataCache,
+                        OrderStatusCache orderStatusCache,
+                        ObjectMapper objectMapper){
         this.orderRepository=orderRepository;
         this.restaurantRepository=restaurantRepository;
         this.userRepository=userRepository;
         this.menuItemRepository=menuItemRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.outboxService = outboxService;
+        this.referenceDataCache = referenceDataCache;
+        this.orderStatusCache = orderStatusCache;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Existence checks and prices come from the in-process reference cache and the
+     * associations are set through references, so on a warm cache the only statements
+     * are the inserts.
+     */
+    @Transactional
     public OrderResponseDto placeOrder(OrderRequestDto requestDto) {
-        User user = userRepository.findById(requestDto.getUserId())
+        UserRef user = referenceDataCache.getUser(requestDto.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException(USER_NOT_FOUND + requestDto.getUserId()));
 
-        Restaurant restaurant = restaurantRepository.findById(requestDto.getRestaurantId())
+        RestaurantRef restaurant = referenceDataCache.getRestaurant(requestDto.getRestaurantId())
                 .orElseThrow(() -> new ResourceNotFoundException(RESTAURANT_NOT_FOUND + requestDto.getRestaurantId()));
 
-        List<MenuItem> items = menuItemRepository.findAllById(requestDto.getMenuItemIds());
+        Map<Long, MenuItemRef> found = referenceDataCache.getMenuItems(requestDto.getMenuItemIds());
+        List<MenuItemRef> items = requestDto.getMenuItemIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
         if (items.isEmpty()) {
             throw new ResourceNotFoundException(MENU_ITEM_NOT_FOUND + requestDto.getMenuItemIds());
         }
 
         double totalPrice = items.stream()
-                .mapToDouble(MenuItem::getPrice)
+                .mapToDouble(MenuItemRef::price)
                 .sum();
         Order order = new Order();
-        order.setUser(user);
-        order.setRestaurant(restaurant);
-        order.setItems(items);
+        order.setUser(userRepository.getReferenceById(user.id()));
+        order.setRestaurant(restaurantRepository.getReferenceById(restaurant.id()));
+        order.setItems(items.stream().map(item -> new OrderLine(item.id(), item.name(), item.price(), 1)).toList());
         order.setOrderDate(LocalDateTime.now());
-        order.setStatus("PLACED");
+        order.setStatus(OrderStatus.PLACED);
         order.setTotalPrice(totalPrice);
 
-        // maintain both sides of the relationship
-        if (user.getOrders() == null) {
-            user.setOrders(new ArrayList<>());
-        }
-        user.getOrders().add(order);
-        userRepository.save(user);
-
+        // Order owns the user_id foreign key, so inserting it is enough. Adding it to
+        // user.getOrders() would load and dirty-check the user's whole order history.
         Order savedOrder = orderRepository.save(order);
 
-        OrderEvent event = new OrderEvent(
-                savedOrder.getId(),
-                user.getId(),
-                restaurant.getId(),
-                items.stream().map(MenuItem::getId).toList(),
-                savedOrder.getStatus()
+        outboxService.enqueue(toEvent(savedOrder, user.id(), restaurant.id()));
+
+        return toResponse(savedOrder, user, restaurant);
+    }
+
+    private static OrderEvent toEvent(Order order, Long userId, Long restaurantId) {
+        List<OrderLineDto> lines = order.getItems().stream().map(OrderLineDto::fromEntity).toList();
+        return new OrderEvent(
+                order.getId(),
+                userId,
+                restaurantId,
+                lines.stream().map(OrderLineDto::getMenuItemId).toList(),
+                order.getStatus(),
+                lines,
+                order.getTotalPrice(),
+                order.getOrderDate()
         );
-        kafkaTemplate.send(ORDER_TOPIC, event);
+    }
+
+    // Built from the cached references so the response does not initialise the entity proxies
+    private static OrderResponseDto toResponse(Order order, UserRef user, RestaurantRef restaurant) {
+        OrderResponseDto dto = new OrderResponseDto();
+        dto.setId(order.getId());
+        dto.setOrderDate(order.getOrderDate());
+        dto.setStatus(order.getStatus());
+        dto.setTotalPrice(order.getTotalPrice());
+
+        UserResponseDto userDto = new UserResponseDto();
+        userDto.setId(user.id());
+        userDto.setName(user.name());
+        userDto.setEmail(user.email());
+        dto.setUser(userDto);
+
+        RestaurantResponseDto restaurantDto = new RestaurantResponseDto();
+        restaurantDto.setId(restaurant.id());
+        restaurantDto.setName(restaurant.name());
+        restaurantDto.setAddress(restaurant.address());
+        restaurantDto.setContact(restaurant.contact());
+        dto.setRestaurant(restaurantDto);
+
+        dto.setItems(order.getItems().stream().map(OrderLineDto::fromEntity).toList());
+        return dto;
+    }
+
+    /**
+     * Places many orders at once. Users, restaurants and menu items are resolved with one
+     * set-based query each, and the orders (their order_lines rows and outbox events) are
+     * written with saveAll so Hibernate can JDBC-batch them. The outbox relay then publishes
+     * the events back to back so they share producer batches.
+     * Each request is validated on its own; a failure is reported at its index and does not
+     * stop the rest of the batch.
+     */
+    @Transactional
+    public List<BatchOrderResultDto> placeOrders(List<OrderRequestDto> requests) {
+        Map<Long, User> users = userRepository.findAllById(collectIds(requests, OrderRequestDto::getUserId))
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Restaurant> restaurants = restaurantRepository.findAllById(collectIds(requests, OrderRequestDto::getRestaurantId))
+                .stream().collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+        Set<Long> menuItemIds = requests.stream()
+                .filter(r -> r != null && r.getMenuItemIds() != null)
+                .flatMap(r -> r.getMenuItemIds().stream())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, MenuItem> menuItems = menuItemRepository.findAllById(menuItemIds)
+                .stream().collect(Collectors.toMap(MenuItem::getId, Function.identity()));
 
-        return OrderResponseDto.fromEntity(savedOrder);
+        BatchOrderResultDto[] results = new BatchOrderResultDto[requests.size()];
+        List<Order> orders = new ArrayList<>();
+        List<Integer> orderIndexes = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequestDto request = requests.get(i);
+            if (request == null || request.getUserId() == null
+                    || request.getRestaurantId() == null || request.getMenuItemIds() == null) {
+                results[i] = BatchOrderResultDto.failure(i, INVALID_ORDER_REQUEST);
+                continue;
+            }
+            User user = users.get(request.getUserId());
+            if (user == null) {
+                results[i] = BatchOrderResultDto.failure(i, USER_NOT_FOUND + request.getUserId());
+                continue;
+            }
+            Restaurant restaurant = restaurants.get(request.getRestaurantId());
+            if (restaurant == null) {
+                results[i] = BatchOrderResultDto.failure(i, RESTAURANT_NOT_FOUND + request.getRestaurantId());
+                continue;
+            }
+            List<MenuItem> items = request.getMenuItemIds().stream()
+                    .distinct()
+                    .map(menuItems::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (items.isEmpty()) {
+                results[i] = BatchOrderResultDto.failure(i, MENU_ITEM_NOT_FOUND + request.getMenuItemIds());
+                continue;
+            }
+
+            Order order = new Order();
+            order.setUser(user);
+            order.setRestaurant(restaurant);
+            order.setItems(items.stream().map(OrderLine::of).toList());
+            order.setOrderDate(LocalDateTime.now());
+            order.setStatus(OrderStatus.PLACED);
+            order.setTotalPrice(items.stream().mapToDouble(MenuItem::getPrice).sum());
+            orders.add(order);
+            orderIndexes.add(i);
+        }
+
+        if (!orders.isEmpty()) {
+            List<Order> savedOrders = orderRepository.saveAll(orders);
+            List<OrderEvent> events = new ArrayList<>(savedOrders.size());
+            for (int j = 0; j < savedOrders.size(); j++) {
+                Order savedOrder = savedOrders.get(j);
+                int index = orderIndexes.get(j);
+                events.add(toEvent(savedOrder, savedOrder.getUser().getId(), savedOrder.getRestaurant().getId()));
+                results[index] = BatchOrderResultDto.success(index, OrderResponseDto.fromEntity(savedOrder));
+            }
+            outboxService.enqueueAll(events);
+        }
+        return Arrays.asList(results);
+    }
+
+    private static Set<Long> collectIds(List<OrderRequestDto> requests, Function<OrderRequestDto, Long> idGetter) {
+        return requests.stream()
+                .filter(Objects::nonNull)
+                .map(idGetter)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
     }
 
-    public Order getOrderDetails(Long id){
-        return orderRepository.findById(id)
-                .orElseThrow(()-> new ResourceNotFoundException(ORDER_ITEM_NOT_FOUND + id));
+    // One query for the order, its user, restaurant and lines; no entities are loaded
+    @Transactional(readOnly = true)
+    public OrderResponseDto getOrderDetails(Long id){
+        List<OrderDetailRow> rows = orderRepository.findDetailRowsById(id);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException(ORDER_ITEM_NOT_FOUND + id);
+        }
+        OrderDetailRow head = rows.get(0);
+        OrderResponseDto dto = new OrderResponseDto();
+        dto.setId(head.getId());
+        dto.setOrderDate(head.getOrderDate());
+        dto.setStatus(head.getStatus());
+        dto.setTotalPrice(head.getTotalPrice());
+
+        UserResponseDto userDto = new UserResponseDto();
+        userDto.setId(head.getUserId());
+        userDto.setName(head.getUserName());
+        userDto.setEmail(head.getUserEmail());
+        dto.setUser(userDto);
+
+        RestaurantResponseDto restaurantDto = new RestaurantResponseDto();
+        restaurantDto.setId(head.getRestaurantId());
+        restaurantDto.setName(head.getRestaurantName());
+        restaurantDto.setAddress(head.getRestaurantAddress());
+        restaurantDto.setContact(head.getRestaurantContact());
+        dto.setRestaurant(restaurantDto);
+
+        dto.setItems(rows.stream()
+                .filter(row -> row.getMenuItemId() != null)
+                .map(row -> new OrderLineDto(row.getMenuItemId(), row.getItemName(), row.getUnitPrice(), row.getQuantity()))
+                .toList());
+        return dto;
     }
 
+    // Served from the event-fed status cache; a miss reads only the status column and fills the cache.
+    // Not read-only on purpose: a replica read could cache a status the primary has already moved past
     public String getOrderStatus(Long id) {
-        return orderRepository.findById(id)
-                .map(Order::getStatus) // ✅ only return status
+        Optional<String> cached = orderStatusCache.get(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        String status = orderRepository.findStatusById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(ORDER_ITEM_NOT_FOUND + id));
+        orderStatusCache.putIfAbsent(id, status);
+        return status;
+    }
+
+    // Full orders with user, restaurant and lines, newest first; one select through the Order.response graph
+    @Transactional(readOnly = true)
+    public List<OrderResponseDto> getOrdersByRestaurant(Long restaurantId) {
+        referenceDataCache.getRestaurant(restaurantId)
+                .orElseThrow(()-> new ResourceNotFoundException(RESTAURANT_NOT_FOUND + restaurantId));
+        return orderRepository.findForResponseByRestaurantIdOrderByOrderDateDescIdDesc(restaurantId).stream()
+                .map(OrderResponseDto::fromEntity)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderResponseDto> getOrdersByUser(Long userId) {
+        referenceDataCache.getUser(userId)
+                .orElseThrow(() -> new ResourceNotFoundException(USER_NOT_FOUND + userId));
+        return orderRepository.findForResponseByUserIdOrderByOrderDateDescIdDesc(userId).stream()
+                .map(OrderResponseDto::fromEntity)
+                .toList();
     }
 
-    public List<Order> getOrdersByRestaurant(Long restaurantId) {
-        restaurantRepository.findById(restaurantId)
+    // Same listings without lines or associations, read straight from the orders table
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDto> getOrderSummariesByRestaurant(Long restaurantId) {
+        referenceDataCache.getRestaurant(restaurantId)
                 .orElseThrow(()-> new ResourceNotFoundException(RESTAURANT_NOT_FOUND + restaurantId));
-        return orderRepository.findByRestaurantId(restaurantId);
+        return orderRepository.findSummariesByRestaurantId(restaurantId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDto> getOrderSummariesByUser(Long userId) {
+        referenceDataCache.getUser(userId)
+                .orElseThrow(() -> new ResourceNotFoundException(USER_NOT_FOUND + userId));
+        return orderRepository.findSummariesByUserId(userId);
+    }
+
+    /**
+     * One page of a restaurant's orders, newest first. {@code cursor} is the {@code nextCursor}
+     * of the previous page (null for the first page); {@code size} is clamped to 1..100.
+     */
+    @Transactional(readOnly = true)
+    public OrderPageDto getOrdersByRestaurant(Long restaurantId, String cursor, int size) {
+        referenceDataCache.getRestaurant(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException(RESTAURANT_NOT_FOUND + restaurantId));
+        int limit = clampPageSize(size);
+        // one extra row tells whether there is a next page without a count query
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<OrderSummaryDto> rows;
+        if (cursor == null) {
+            rows = orderRepository.findFirstPageByRestaurantId(restaurantId, pageable);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            rows = orderRepository.findPageByRestaurantIdAfter(restaurantId, after.orderDate(), after.id(), pageable);
+        }
+        return toPage(rows, limit);
+    }
+
+    // Same as getOrdersByRestaurant(Long, String, int), for a user's order history
+    @Transactional(readOnly = true)
+    public OrderPageDto getOrdersByUser(Long userId, String cursor, int size) {
+        referenceDataCache.getUser(userId)
+                .orElseThrow(() -> new ResourceNotFoundException(USER_NOT_FOUND + userId));
+        int limit = clampPageSize(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<OrderSummaryDto> rows;
+        if (cursor == null) {
+            rows = orderRepository.findFirstPageByUserId(userId, pageable);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            rows = orderRepository.findPageByUserIdAfter(userId, after.orderDate(), after.id(), pageable);
+        }
+        return toPage(rows, limit);
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static OrderPageDto toPage(List<OrderSummaryDto> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new OrderPageDto(rows, null);
+        }
+        List<OrderSummaryDto> page = rows.subList(0, limit);
+        OrderSummaryDto last = page.get(limit - 1);
+        return new OrderPageDto(page, new OrderCursor(last.getOrderDate(), last.getId()).encode());
     }
 
     public OrderResponseDto updateOrderStatus(Long orderId, String status) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findForResponseById(orderId)
                 .orElseThrow(()-> new ResourceNotFoundException(ORDER_ITEM_NOT_FOUND + orderId));
         order.setStatus(status);
         Order saveOrder = orderRepository.save(order);
+        // written rather than evicted once the save has committed: after an evict, a status read that
+        // loaded the old row just before the commit could put it back with putIfAbsent
+        orderStatusCache.put(orderId, saveOrder.getStatus());
         return OrderResponseDto.fromEntity(saveOrder);
     }
 
@@ -115,25 +389,63 @@ public class OrderService {
             throw new ResourceNotFoundException(ORDER_ITEM_NOT_FOUND + orderId);
         }
         orderRepository.deleteById(orderId);
+        orderStatusCache.evict(orderId);
     }
 
+    // The restaurant decides on placed orders only; later transitions belong to the payment flow
+    @Transactional
     public String updateOrderStatusForRestaurant(Long orderId, String status) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException(ORDER_ITEM_NOT_FOUND + orderId));
-        if (!order.getStatus().equals("PLACED")) {
+        if (!transitionStatus(orderId, OrderStatus.PLACED, status)) {
+            // lost the compare-and-set: only now is it worth finding out why
+            if (!orderRepository.existsById(orderId)) {
+                throw new ResourceNotFoundException(ORDER_ITEM_NOT_FOUND + orderId);
+            }
             throw new IllegalStateException("Order cannot be modified at this stage.");
         }
-        order.setStatus(status);
-        orderRepository.save(order);
-        //kafka event
-        OrderEvent event = new OrderEvent(
-                order.getId(),
-                order.getUser().getId(),
-                order.getRestaurant().getId(),
-                order.getItems().stream().map(MenuItem::getId).toList(),
-                status
-        );
-        kafkaTemplate.send(ORDER_TOPIC, event);
         return status;
     }
+
+    /**
+     * Moves an order from {@code from} to {@code status}, a step the transition table in
+     * {@link OrderStatus} must allow, as a single conditional UPDATE. The order event is built
+     * from the row that statement returns and written to the outbox in the same transaction.
+     *
+     * @return true if this call made the transition; false if the order does not exist or is
+     *         not in status {@code from} (including losing a race to a concurrent transition)
+     */
+    @Transactional
+    public boolean transitionStatus(Long orderId, String from, String status) {
+        if (!OrderStatus.canTransition(from, status)) {
+            throw new IllegalArgumentException("No transition from " + from + " to " + status);
+        }
+        Optional<OrderStatusTransition> transition = orderRepository.transitionStatus(orderId, Set.of(from), status);
+        if (transition.isEmpty()) {
+            return false;
+        }
+        OrderStatusTransition row = transition.get();
+        List<OrderLineDto> lines = readLines(row.getLines());
+        // published by the outbox relay once this transaction commits
+        outboxService.enqueue(new OrderEvent(
+                row.getOrderId(),
+                row.getUserId(),
+                row.getRestaurantId(),
+                lines.stream().map(OrderLineDto::getMenuItemId).toList(),
+                status,
+                lines,
+                row.getTotalPrice(),
+                LocalDateTime.now()
+        ));
+        return true;
+    }
+
+    private List<OrderLineDto> readLines(String json) {
+        if (json == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<List<OrderLineDto>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable order lines: " + json, e);
+        }
+    }
 }
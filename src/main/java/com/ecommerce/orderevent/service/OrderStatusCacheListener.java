@@ -0,0 +1,28 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.cache.OrderStatusCache;
+import com.ecommerce.orderevent.models.OrderEvent;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import static com.ecommerce.orderevent.constants.KafkaTopics.ORDER_EVENTS;
+
+/**
+ * Keeps {@link OrderStatusCache} current from the published transitions. Events are keyed by
+ * order id, so each order's transitions arrive in order and the last write is the latest status.
+ * The cache lives in Redis and is shared, so one consumer group for all instances is enough.
+ */
+@Service
+public class OrderStatusCacheListener {
+
+    private final OrderStatusCache orderStatusCache;
+
+    public OrderStatusCacheListener(OrderStatusCache orderStatusCache) {
+        this.orderStatusCache = orderStatusCache;
+    }
+
+    @KafkaListener(topics = ORDER_EVENTS, groupId = "order-status-cache")
+    public void consume(OrderEvent event) {
+        orderStatusCache.put(event.getOrderId(), event.getStatus());
+    }
+}
@@ -0,0 +1,147 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.entity.OutboxEvent;
+import com.ecommerce.orderevent.models.OrderEvent;
+import com.ecommerce.orderevent.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the order outbox to Kafka in large batches. Rows are locked with SKIP LOCKED,
+ * sent back to back so the producer can batch them, and deleted only once the broker
+ * has acknowledged them (delivery is at-least-once). Within a batch an order's next event
+ * is only sent once the previous one is acknowledged, and a failed event holds back the
+ * rest of its order until the next run, so one relay keeps per-order ordering under
+ * failures. Relays on several instances can still take events of the same order in
+ * parallel, because SKIP LOCKED hands the later rows to whichever relay asks first.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderEventPublisher orderEventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagMs = new AtomicLong();
+    private final Counter publishedCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OrderEventPublisher orderEventPublisher,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout-ms:3000}") long sendTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderEventPublisher = orderEventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+
+        Gauge.builder("outbox.depth", depth, AtomicLong::get)
+                .description("Events waiting in the order outbox")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lagMs, value -> value.get() / 1000.0)
+                .description("Age in seconds of the oldest unpublished outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    @Transactional
+    public void relay() {
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            depth.set(0);
+            lagMs.set(0);
+            return;
+        }
+        List<OutboxEvent> published = publish(batch);
+        outboxEventRepository.deleteAllInBatch(published);
+        publishedCounter.increment(published.size());
+        refreshMetrics();
+    }
+
+    /*
+     * Sends in rounds of at most one event per order, so the producer still batches across orders
+     * but an order never has two events in flight. An order whose event fails sends nothing more in
+     * this run: its later events stay in the outbox behind the failed one and go out after it.
+     */
+    private List<OutboxEvent> publish(List<OutboxEvent> batch) {
+        Map<Long, Deque<OutboxEvent>> pendingByOrder = new LinkedHashMap<>();
+        for (OutboxEvent outboxEvent : batch) {
+            pendingByOrder.computeIfAbsent(outboxEvent.getAggregateId(), id -> new ArrayDeque<>()).add(outboxEvent);
+        }
+
+        List<OutboxEvent> published = new ArrayList<>(batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        while (!pendingByOrder.isEmpty()) {
+            Map<OutboxEvent, CompletableFuture<?>> round = new LinkedHashMap<>();
+            for (Deque<OutboxEvent> pending : pendingByOrder.values()) {
+                OutboxEvent outboxEvent = pending.peek();
+                round.put(outboxEvent, send(outboxEvent));
+            }
+
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                CompletableFuture.allOf(round.values().toArray(new CompletableFuture[0])).get(remaining, TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                log.warn("⚠️ Outbox batch was only partly acknowledged, the rest will be retried: {}", e.getMessage());
+            }
+
+            for (Map.Entry<OutboxEvent, CompletableFuture<?>> sent : round.entrySet()) {
+                CompletableFuture<?> send = sent.getValue();
+                Long orderId = sent.getKey().getAggregateId();
+                if (!send.isDone() || send.isCompletedExceptionally()) {
+                    pendingByOrder.remove(orderId);
+                    continue;
+                }
+                published.add(sent.getKey());
+                Deque<OutboxEvent> pending = pendingByOrder.get(orderId);
+                pending.poll();
+                if (pending.isEmpty()) {
+                    pendingByOrder.remove(orderId);
+                }
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                break; // out of time: the rest goes out on the next run
+            }
+        }
+        return published;
+    }
+
+    private CompletableFuture<?> send(OutboxEvent outboxEvent) {
+        try {
+            OrderEvent event = objectMapper.readValue(outboxEvent.getPayload(), OrderEvent.class);
+            return orderEventPublisher.publish(outboxEvent.getTopic(), event);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void refreshMetrics() {
+        depth.set(outboxEventRepository.count());
+        LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt();
+        lagMs.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+    }
+}
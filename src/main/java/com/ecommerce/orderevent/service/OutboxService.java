@@ -0,0 +1,51 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.entity.OutboxEvent;
+import com.ecommerce.orderevent.models.OrderEvent;
+import com.ecommerce.orderevent.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.ecommerce.orderevent.constants.KafkaTopics.ORDER_EVENTS;
+
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // MANDATORY: the event must commit or roll back together with the order change that produced it
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(OrderEvent event) {
+        outboxEventRepository.save(toOutboxEvent(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<OrderEvent> events) {
+        outboxEventRepository.saveAll(events.stream().map(this::toOutboxEvent).toList());
+    }
+
+    private OutboxEvent toOutboxEvent(OrderEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setTopic(ORDER_EVENTS);
+        outboxEvent.setAggregateId(event.getOrderId());
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order event " + event, e);
+        }
+        return outboxEvent;
+    }
+}
@@ -1,47 +1,35 @@
 package com.ecommerce.orderevent.service;
 
-import com.ecommerce.orderevent.entity.MenuItem;
-import com.ecommerce.orderevent.entity.Order;
 import com.ecommerce.orderevent.exception.ResourceNotFoundException;
-import com.ecommerce.orderevent.models.OrderEvent;
 import com.ecommerce.orderevent.repository.OrderRepository;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import static com.ecommerce.orderevent.constants.ErrorMessages.ORDER_ITEM_NOT_FOUND;
+import static com.ecommerce.orderevent.constants.OrderStatus.ACCEPTED;
+import static com.ecommerce.orderevent.constants.OrderStatus.PAYMENT_SUCCESS;
 
 @Service
 public class PaymentService {
 
-    private static final String ORDER_TOPIC = "order-events";
-
     private final OrderRepository orderRepository;
-    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final OrderService orderService;
 
     public PaymentService(OrderRepository orderRepository,
-                          KafkaTemplate<String, OrderEvent> kafkaTemplate) {
+                          OrderService orderService) {
         this.orderRepository = orderRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.orderService = orderService;
     }
 
+    // ACCEPTED -> PAYMENT_SUCCESS is a compare-and-set, so a double submit pays (and notifies) once
+    @Transactional
     public String initiatePayment(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException(ORDER_ITEM_NOT_FOUND + orderId));
-
-        if (!"ACCEPTED".equals(order.getStatus())) {
+        if (!orderService.transitionStatus(orderId, ACCEPTED, PAYMENT_SUCCESS)) {
+            if (!orderRepository.existsById(orderId)) {
+                throw new ResourceNotFoundException(ORDER_ITEM_NOT_FOUND + orderId);
+            }
             throw new IllegalStateException("Payment can only be initiated for accepted orders.");
         }
-
-        OrderEvent event = new OrderEvent(
-                order.getId(),
-                order.getUser().getId(),
-                order.getRestaurant().getId(),
-                order.getItems().stream().map(MenuItem::getId).toList(),
-                "PAYMENT_SUCCESS"
-        );
-
-        kafkaTemplate.send(ORDER_TOPIC, event);
         return "Payment started for order";
     }
 }
-
@@ -0,0 +1,240 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.cache.CacheSnapshotFile;
+import com.ecommerce.orderevent.cache.CacheValueCodec;
+import com.ecommerce.orderevent.cache.RestaurantLocalCache;
+import com.ecommerce.orderevent.cache.RestaurantVersions;
+import com.ecommerce.orderevent.dtos.RestaurantResponseDto;
+import com.ecommerce.orderevent.entity.MenuItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ecommerce.orderevent.constants.CacheKeys.*;
+
+/**
+ * Fills the restaurant caches before the instance reports ready. Spring Boot runs application
+ * runners before readiness switches to ACCEPTING_TRAFFIC.
+ * Every minute, the keys most used in the local tier are written to a snapshot file, each with
+ * its encoded value from Redis and the restaurant version read just before it. That only happens
+ * when cache.snapshot.path is set, and only pays off on storage that outlives the instance.
+ * On startup, an entry is trusted only if its version is still the current one. Every restaurant
+ * and menu write bumps that version, so an outdated entry is never served. Trusted entries go
+ * into the local tier, and into Redis if the key is missing there.
+ * The restaurant list is not snapshotted: it is read from its Redis hash, which writes patch
+ * instead of dropping, and it is always loaded through the normal read path.
+ * Without a usable snapshot, the first few restaurants and menus are loaded that way too.
+ * Warm-up problems are logged and never stop the startup.
+ */
+@Slf4j
+@Component
+public class RestaurantCacheWarmer implements ApplicationRunner {
+
+    private final RestaurantLocalCache restaurantLocalCache;
+    private final RestaurantVersions restaurantVersions;
+    private final RestaurantService restaurantService;
+    private final MenuItemService menuItemService;
+    private final RedisTemplate<String, byte[]> cacheRedisTemplate;
+    private final CacheValueCodec cacheValueCodec;
+    private final MeterRegistry meterRegistry;
+    private final Path snapshotPath;
+    private final int snapshotMaxEntries;
+    private final int preloadLimit;
+
+    private final AtomicInteger warmedEntries = new AtomicInteger();
+    private final AtomicInteger skippedEntries = new AtomicInteger();
+
+    public RestaurantCacheWarmer(RestaurantLocalCache restaurantLocalCache,
+                                 RestaurantVersions restaurantVersions,
+                                 RestaurantService restaurantService,
+                                 MenuItemService menuItemService,
+                                 RedisTemplate<String, byte[]> cacheRedisTemplate,
+                                 CacheValueCodec cacheValueCodec,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${cache.snapshot.path:}") String snapshotPath,
+                                 @Value("${cache.snapshot.max-entries:500}") int snapshotMaxEntries,
+                                 @Value("${cache.warmup.preload-limit:50}") int preloadLimit) {
+        this.restaurantLocalCache = restaurantLocalCache;
+        this.restaurantVersions = restaurantVersions;
+        this.restaurantService = restaurantService;
+        this.menuItemService = menuItemService;
+        this.cacheRedisTemplate = cacheRedisTemplate;
+        this.cacheValueCodec = cacheValueCodec;
+        this.meterRegistry = meterRegistry;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.snapshotMaxEntries = snapshotMaxEntries;
+        this.preloadLimit = preloadLimit;
+        Gauge.builder("cache.warmup.entries", warmedEntries, AtomicInteger::get)
+                .description("Restaurant cache entries loaded by the startup warm-up")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.skipped", skippedEntries, AtomicInteger::get)
+                .description("Snapshot entries dropped at startup because they were outdated or unreadable")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        List<RestaurantResponseDto> restaurants = loadRestaurantList();
+        String source = "snapshot";
+        int loaded = warmFromSnapshot();
+        if (loaded == 0) {
+            source = "database";
+            loaded = preload(restaurants);
+        }
+        if (!restaurants.isEmpty()) {
+            loaded++;
+        }
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+        warmedEntries.set(loaded);
+        Timer.builder("cache.warmup.duration")
+                .description("Time spent warming the restaurant caches before accepting traffic")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(took);
+        log.info("🔥 Warmed restaurant caches from {}: {} entries, {} skipped, {} ms",
+                source, loaded, skippedEntries.get(), took.toMillis());
+    }
+
+    @Scheduled(initialDelayString = "${cache.snapshot.interval-ms:60000}", fixedDelayString = "${cache.snapshot.interval-ms:60000}")
+    public void writeSnapshot() {
+        if (snapshotPath == null) {
+            return;
+        }
+        List<CacheSnapshotFile.Entry> entries = new ArrayList<>();
+        for (String key : restaurantLocalCache.hottest(snapshotMaxEntries).keySet()) {
+            try {
+                // version first: a write between the two reads deletes the value or leaves it newer than the version
+                String version = currentVersion(key);
+                byte[] value = version != null ? cacheRedisTemplate.opsForValue().get(key) : null;
+                if (value != null) {
+                    entries.add(new CacheSnapshotFile.Entry(key, version, value));
+                }
+            } catch (Exception e) {
+                log.debug("Leaving {} out of the cache snapshot: {}", key, e.getMessage());
+            }
+        }
+        if (entries.isEmpty()) {
+            return; // idle or Redis down: keep the previous snapshot
+        }
+        try {
+            CacheSnapshotFile.write(snapshotPath, new CacheSnapshotFile.Snapshot(System.currentTimeMillis(), entries));
+            log.debug("Wrote {} restaurant cache entries to {}", entries.size(), snapshotPath);
+        } catch (IOException e) {
+            log.warn("⚠️ Failed to write restaurant cache snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private int warmFromSnapshot() {
+        if (snapshotPath == null || !Files.isReadable(snapshotPath)) {
+            return 0;
+        }
+        CacheSnapshotFile.Snapshot snapshot;
+        try {
+            snapshot = CacheSnapshotFile.read(snapshotPath);
+        } catch (IOException e) {
+            log.warn("⚠️ Ignoring unreadable restaurant cache snapshot {}: {}", snapshotPath, e.getMessage());
+            return 0;
+        }
+        int loaded = 0;
+        for (CacheSnapshotFile.Entry entry : snapshot.entries()) {
+            try {
+                // version checked inside the guarded put, so an eviction published meanwhile wins
+                if (!restaurantLocalCache.putIfCurrent(entry.key(), () -> currentValue(entry))) {
+                    skippedEntries.incrementAndGet();
+                    continue;
+                }
+                boolean filled = Boolean.TRUE.equals(cacheRedisTemplate.opsForValue().setIfAbsent(entry.key(), entry.value(),
+                        Duration.ofSeconds(RestaurantService.jitteredTtlSeconds(RestaurantService.RESTAURANT_CACHE_TTL))));
+                // a write between the check and the fill may have deleted the key already
+                if (filled && !entry.version().equals(currentVersion(entry.key()))) {
+                    cacheRedisTemplate.delete(entry.key());
+                }
+                loaded++;
+            } catch (Exception e) {
+                skippedEntries.incrementAndGet();
+                log.debug("Skipping snapshot entry {}: {}", entry.key(), e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    // The decoded entry if its version is still the current one, otherwise null
+    private Object currentValue(CacheSnapshotFile.Entry entry) {
+        if (!entry.version().equals(currentVersion(entry.key()))) {
+            return null;
+        }
+        try {
+            return decode(entry.key(), entry.value());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Each call loads through L1 -> Redis -> Postgres and fills the tiers on the way
+    private List<RestaurantResponseDto> loadRestaurantList() {
+        try {
+            return restaurantService.getAllRestaurant();
+        } catch (Exception e) {
+            log.warn("⚠️ Restaurant list preload failed: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private int preload(List<RestaurantResponseDto> restaurants) {
+        try {
+            int loaded = 0;
+            for (RestaurantResponseDto restaurant : restaurants.subList(0, Math.min(preloadLimit, restaurants.size()))) {
+                restaurantService.getRestaurantById(restaurant.getId());
+                menuItemService.getMenuItemsByRestaurant(restaurant.getId());
+                loaded += 2;
+            }
+            return loaded;
+        } catch (Exception e) {
+            log.warn("⚠️ Restaurant cache preload failed, starting cold: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    // Null for keys that are not snapshotted: the list, and anything not versioned
+    private String currentVersion(String key) {
+        if (key.equals(RESTAURANT_LIST)) {
+            return null;
+        }
+        if (key.startsWith(MENU)) {
+            return restaurantVersions.current(Long.valueOf(key.substring(MENU.length())));
+        }
+        if (key.startsWith(RESTAURANT)) {
+            return restaurantVersions.current(Long.valueOf(key.substring(RESTAURANT.length())));
+        }
+        return null;
+    }
+
+    private Object decode(String key, byte[] value) throws IOException {
+        if (key.startsWith(MENU)) {
+            return List.copyOf(cacheValueCodec.decode(value, new TypeReference<List<MenuItem>>() {}));
+        }
+        return cacheValueCodec.decode(value, RestaurantResponseDto.class);
+    }
+}
@@ -1,35 +1,62 @@
 package com.ecommerce.orderevent.service;
 
+import com.ecommerce.orderevent.cache.CacheValueCodec;
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
+import com.ecommerce.orderevent.cache.RestaurantLocalCache;
+import com.ecommerce.orderevent.cache.RestaurantVersions;
+import com.ecommerce.orderevent.dtos.MenuItemResponseDto;
 import com.ecommerce.orderevent.dtos.RestaurantRequestDto;
 import com.ecommerce.orderevent.dtos.RestaurantResponseDto;
 import com.ecommerce.orderevent.entity.MenuItem;
 import com.ecommerce.orderevent.entity.Restaurant;
 import com.ecommerce.orderevent.exception.ResourceNotFoundException;
+import com.ecommerce.orderevent.repository.RestaurantMenuRow;
 import com.ecommerce.orderevent.repository.RestaurantRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import static com.ecommerce.orderevent.constants.CacheKeys.*;
 import static com.ecommerce.orderevent.constants.ErrorMessages.RESTAURANT_NOT_FOUND;
 
 @Service
 @Slf4j
 public class RestaurantService {
-    private static final String RESTAURANT_CACHE_PREFIX = "restaurant:";
-    private static final long RESTAURANT_CACHE_TTL = 10;
+    // every write evicts precisely (see evictCachedRestaurant) and fills that raced a write are
+    // dropped again (see fillIfUnchanged), so entries can live long
+    static final long RESTAURANT_CACHE_TTL = 60;
+    private static final long RESTAURANT_LIST_CACHE_TTL = 60;
+    private static final double TTL_JITTER = 0.1;
+    // hash fields are restaurant ids; this one marks a hash loaded in full, as opposed to one left partly deleted
+    private static final String LIST_COMPLETE_FIELD = "complete";
 
     private final RestaurantRepository restaurantRepository;
     private final RedisTemplate<String, Object> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, byte[]> cacheRedisTemplate;
+    private final CacheValueCodec cacheValueCodec;
+    private final ReferenceDataCache referenceDataCache;
+    private final RestaurantVersions restaurantVersions;
+    private final RestaurantLocalCache restaurantLocalCache;
     public RestaurantService(RestaurantRepository restaurantRepository,
                              RedisTemplate<String, Object> redisTemplate,
-                             ObjectMapper objectMapper){
+                             RedisTemplate<String, byte[]> cacheRedisTemplate,
+                             CacheValueCodec cacheValueCodec,
+                             ReferenceDataCache referenceDataCache,
+                             RestaurantVersions restaurantVersions,
+                             RestaurantLocalCache restaurantLocalCache){
         this.restaurantRepository = restaurantRepository;
         this.redisTemplate=redisTemplate;
-        this.objectMapper = objectMapper;
+        this.cacheRedisTemplate = cacheRedisTemplate;
+        this.cacheValueCodec = cacheValueCodec;
+        this.referenceDataCache = referenceDataCache;
+        this.restaurantVersions = restaurantVersions;
+        this.restaurantLocalCache = restaurantLocalCache;
     }
 
     public RestaurantResponseDto addRestaurant(RestaurantRequestDto restaurantRequestDto){
@@ -53,13 +80,13 @@ public class RestaurantService {
             restaurant.setMenuItems(menuItems);
         }
         Restaurant saveRestaurant = restaurantRepository.save(restaurant);
-        redisTemplate.delete(RESTAURANT_CACHE_PREFIX + "all");
+        evictCachedRestaurant(saveRestaurant.getId());
         log.info("🍽️ Added restaurant: {}", saveRestaurant.getName());
         return RestaurantResponseDto.fromEntity(saveRestaurant);
     }
 
     public RestaurantResponseDto updateRestaurant(Long id, RestaurantRequestDto restaurantRequestDto) {
-        Restaurant existingRestaurant = restaurantRepository.findById(id)
+        Restaurant existingRestaurant = restaurantRepository.findWithMenuById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(RESTAURANT_NOT_FOUND+ id));
 
         // Update allowed fields
@@ -68,7 +95,9 @@ public class RestaurantService {
         existingRestaurant.setContact(restaurantRequestDto.getContact());
         existingRestaurant.setEmail(restaurantRequestDto.getEmail());
 
+        List<Long> replacedItemIds = List.of();
         if (restaurantRequestDto.getMenuItems() != null) {
+            replacedItemIds = menuItemIds(existingRestaurant);
             List<MenuItem> menuItems = restaurantRequestDto.getMenuItems().stream()
                     .map(itemDto -> {
                         MenuItem item = new MenuItem();
@@ -83,78 +112,261 @@ public class RestaurantService {
         }
         Restaurant restaurant = restaurantRepository.save(existingRestaurant);
 
-        redisTemplate.delete(RESTAURANT_CACHE_PREFIX + id);
-        redisTemplate.delete(RESTAURANT_CACHE_PREFIX + "all");
+        evictCachedRestaurant(id);
+        evictCachedMenuItems(replacedItemIds);
+        referenceDataCache.evictRestaurant(id);
         log.info("♻️ Cache invalidated for restaurant {}", id);
 
         return RestaurantResponseDto.fromEntity(restaurant);
     }
 
+    // Not read-only: these fill the Redis and local tiers, which must never be fed from a lagging replica
+    @Transactional
     public List<RestaurantResponseDto> getAllRestaurant() {
-        String key = RESTAURANT_CACHE_PREFIX + "all";
+        return restaurantLocalCache.get(RESTAURANT_LIST, this::loadAllRestaurants);
+    }
+
+    @Transactional
+    public RestaurantResponseDto getRestaurantById(Long id) {
+        String key = RESTAURANT + id;
+        return restaurantLocalCache.get(key, () -> loadRestaurant(key, id));
+    }
 
+    /*
+     * Redis, then the database; the local tier keeps what these return.
+     * The list is a Redis hash with one field per restaurant, so a write patches its own field
+     * (see refreshCachedListEntry) instead of dropping the whole list. A full rebuild only happens
+     * when the hash has expired or is incomplete, and it is thrown away again if any restaurant was
+     * written meanwhile, since that write may have patched its field before the rebuild overwrote it.
+     */
+    private List<RestaurantResponseDto> loadAllRestaurants() {
+        HashOperations<String, String, byte[]> listHash = cacheRedisTemplate.opsForHash();
         try {
-            String json = (String) redisTemplate.opsForValue().get(key);
-            if (json != null) {
+            Map<String, byte[]> fields = listHash.entries(RESTAURANT_LIST_HASH);
+            if (fields.containsKey(LIST_COMPLETE_FIELD)) {
                 log.info("✅ Fetched restaurant list from Redis Cache");
-                return objectMapper.readValue(json, new TypeReference<List<RestaurantResponseDto>>() {});
+                return fromListFields(fields);
             }
         } catch (Exception e) {
             log.error("❌ Failed to deserialize cached restaurant list", e);
         }
 
-        List<Restaurant> restaurants = restaurantRepository.findAll();
-        List<RestaurantResponseDto> dtoList = restaurants.stream()
-                .map(RestaurantResponseDto::fromEntity)
-                .toList();
+        String listVersion = restaurantVersions.currentList();
+        List<RestaurantResponseDto> dtoList = fromRows(restaurantRepository.findAllMenuRows());
 
         try {
-            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(dtoList), 5, TimeUnit.MINUTES);
-            log.info("💾 Saved restaurant list to Redis Cache");
+            Map<String, byte[]> fields = new HashMap<>();
+            for (RestaurantResponseDto dto : dtoList) {
+                fields.put(dto.getId().toString(), cacheValueCodec.encode(dto));
+            }
+            fields.put(LIST_COMPLETE_FIELD, new byte[0]);
+            listHash.putAll(RESTAURANT_LIST_HASH, fields);
+            cacheRedisTemplate.expire(RESTAURANT_LIST_HASH, jitteredTtlSeconds(RESTAURANT_LIST_CACHE_TTL), TimeUnit.SECONDS);
+            if (listVersion == null || !listVersion.equals(restaurantVersions.currentList())) {
+                cacheRedisTemplate.delete(RESTAURANT_LIST_HASH);
+            } else {
+                log.info("💾 Saved restaurant list to Redis Cache");
+            }
         } catch (Exception e) {
             log.error("❌ Failed to serialize restaurant list", e);
         }
 
-        return dtoList;
+        return List.copyOf(dtoList);
     }
 
-    public RestaurantResponseDto getRestaurantById(Long id) {
-        String key = RESTAURANT_CACHE_PREFIX + id;
+    private List<RestaurantResponseDto> fromListFields(Map<String, byte[]> fields) throws IOException {
+        List<RestaurantResponseDto> dtoList = new ArrayList<>(fields.size());
+        for (Map.Entry<String, byte[]> field : fields.entrySet()) {
+            if (!field.getKey().equals(LIST_COMPLETE_FIELD)) {
+                dtoList.add(cacheValueCodec.decode(field.getValue(), RestaurantResponseDto.class));
+            }
+        }
+        // same order as findAllMenuRows
+        dtoList.sort(Comparator.comparing(RestaurantResponseDto::getId));
+        return List.copyOf(dtoList);
+    }
 
+    // Rewrites (or removes) the restaurant's field of a complete list hash; one small query however large the catalog
+    private void refreshCachedListEntry(Long id) {
+        HashOperations<String, String, byte[]> listHash = cacheRedisTemplate.opsForHash();
         try {
-            String json = (String) redisTemplate.opsForValue().get(key);
-            if (json != null) {
+            if (!Boolean.TRUE.equals(listHash.hasKey(RESTAURANT_LIST_HASH, LIST_COMPLETE_FIELD))) {
+                return; // nothing to patch, the next read rebuilds it
+            }
+            String version = restaurantVersions.current(id);
+            List<RestaurantResponseDto> found = fromRows(restaurantRepository.findMenuRowsById(id));
+            if (found.isEmpty()) {
+                listHash.delete(RESTAURANT_LIST_HASH, id.toString());
+            } else {
+                listHash.put(RESTAURANT_LIST_HASH, id.toString(), cacheValueCodec.encode(found.get(0)));
+            }
+            // another write to the same restaurant raced this one; its patch may have landed first
+            if (version == null || !version.equals(restaurantVersions.current(id))) {
+                cacheRedisTemplate.delete(RESTAURANT_LIST_HASH);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to patch restaurant {} in the cached list, dropping the list", id, e);
+            try {
+                cacheRedisTemplate.delete(RESTAURANT_LIST_HASH);
+            } catch (Exception deleteFailure) {
+                log.error("❌ Failed to drop the cached restaurant list", deleteFailure);
+            }
+        }
+    }
+
+    private RestaurantResponseDto loadRestaurant(String key, Long id) {
+        try {
+            byte[] cached = cacheRedisTemplate.opsForValue().get(key);
+            if (cached != null) {
                 log.info("✅ Fetched restaurant DTO from Redis Cache");
-                return objectMapper.readValue(json, RestaurantResponseDto.class);
+                return cacheValueCodec.decode(cached, RestaurantResponseDto.class);
             }
         } catch (Exception e) {
             log.error("❌ Failed to deserialize cached restaurant DTO", e);
         }
 
-        Restaurant restaurant = restaurantRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(RESTAURANT_NOT_FOUND + id));
-
-        RestaurantResponseDto dto = RestaurantResponseDto.fromEntity(restaurant);
+        String version = restaurantVersions.peek(id);
+        List<RestaurantResponseDto> found = fromRows(restaurantRepository.findMenuRowsById(id));
+        if (found.isEmpty()) {
+            throw new ResourceNotFoundException(RESTAURANT_NOT_FOUND + id);
+        }
+        RestaurantResponseDto dto = found.get(0);
         try {
-            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(dto), RESTAURANT_CACHE_TTL, TimeUnit.MINUTES);
-            log.info("💾 Saved restaurant DTO to Redis Cache");
+            fillIfUnchanged(key, cacheValueCodec.encode(dto), RESTAURANT_CACHE_TTL, version, () -> restaurantVersions.peek(id));
         } catch (Exception e) {
             log.error("❌ Failed to serialize restaurant DTO", e);
         }
         return dto;
     }
 
+    /*
+     * Stores a value loaded from the database unless a write raced the load: the version is read
+     * before the load and again after the set, and a write in between deletes its keys again after
+     * its bump (see evictCachedRestaurant), so either that delete or this check drops a stale fill.
+     */
+    void fillIfUnchanged(String key, byte[] value, long ttlMinutes, String versionBeforeLoad, Supplier<String> currentVersion) {
+        cacheRedisTemplate.opsForValue().set(key, value, jitteredTtlSeconds(ttlMinutes), TimeUnit.SECONDS);
+        if (!Objects.equals(versionBeforeLoad, currentVersion.get())) {
+            cacheRedisTemplate.delete(key);
+            log.info("♻️ Dropped {} from Redis Cache, written while it was loading", key);
+        } else {
+            log.info("💾 Saved {} to Redis Cache", key);
+        }
+    }
+
+
+    // +/-10% so entries written together (e.g. after a restart) don't all expire together
+    static long jitteredTtlSeconds(long minutes) {
+        long seconds = TimeUnit.MINUTES.toSeconds(minutes);
+        long spread = (long) (seconds * TTL_JITTER);
+        return seconds - spread + ThreadLocalRandom.current().nextLong(2 * spread + 1);
+    }
+
+    // Folds the restaurant/menu item rows of the read queries into DTOs, keeping query order
+    private static List<RestaurantResponseDto> fromRows(List<RestaurantMenuRow> rows) {
+        Map<Long, RestaurantResponseDto> restaurants = new LinkedHashMap<>();
+        for (RestaurantMenuRow row : rows) {
+            RestaurantResponseDto dto = restaurants.computeIfAbsent(row.getId(), id -> {
+                RestaurantResponseDto restaurant = new RestaurantResponseDto();
+                restaurant.setId(row.getId());
+                restaurant.setName(row.getName());
+                restaurant.setAddress(row.getAddress());
+                restaurant.setContact(row.getContact());
+                restaurant.setMenuItems(new ArrayList<>());
+                return restaurant;
+            });
+            if (row.getMenuItemId() != null) {
+                MenuItemResponseDto item = new MenuItemResponseDto();
+                item.setId(row.getMenuItemId());
+                item.setName(row.getMenuItemName());
+                item.setDescription(row.getMenuItemDescription());
+                item.setPrice(row.getMenuItemPrice());
+                RestaurantResponseDto owner = new RestaurantResponseDto();
+                owner.setId(dto.getId());
+                owner.setName(dto.getName());
+                owner.setAddress(dto.getAddress());
+                owner.setContact(dto.getContact());
+                item.setRestaurant(owner);
+                dto.getMenuItems().add(item);
+            }
+        }
+        return new ArrayList<>(restaurants.values());
+    }
 
     public Restaurant getRestaurantWithMenu(Long id) {
-        return restaurantRepository.findById(id)
+        return restaurantRepository.findWithMenuById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(RESTAURANT_NOT_FOUND+ id));
     }
 
     public void deleteRestaurant(Long id){
-        if(!restaurantRepository.existsById(id)) throw new ResourceNotFoundException(RESTAURANT_NOT_FOUND+ id);
+        // loaded rather than checked: the menu goes with it and its cached items must be evicted
+        Restaurant restaurant = restaurantRepository.findWithMenuById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(RESTAURANT_NOT_FOUND + id));
         restaurantRepository.deleteById(id);
-        redisTemplate.delete(RESTAURANT_CACHE_PREFIX + id);
-        redisTemplate.delete(RESTAURANT_CACHE_PREFIX + "all");
+        evictCachedRestaurant(id);
+        // after the bump in evictCachedRestaurant, which would otherwise leave a version behind
+        restaurantVersions.remove(id);
+        evictCachedMenuItems(menuItemIds(restaurant));
+        referenceDataCache.evictRestaurant(id);
         log.info("🗑️ Deleted from Redis cache as well: restaurant {}", id);
     }
+
+    // The cached DTOs embed the menu, so menu item writes come through here as well
+    public void evictCachedRestaurant(Long id) {
+        redisTemplate.delete(RESTAURANT + id);
+        redisTemplate.delete(RESTAURANT_LIST); // the old list blob, for instances not yet on the hash
+        redisTemplate.delete(MENU + id);
+        restaurantVersions.bump(id);
+        // again after the bump: a fill that landed in between saw no new version (see fillIfUnchanged)
+        redisTemplate.delete(List.of(RESTAURANT + id, MENU + id));
+        // after the bump, so a racing rebuild or patch notices the new version
+        refreshCachedListEntry(id);
+        restaurantLocalCache.evict(RESTAURANT + id, RESTAURANT_LIST, MENU + id);
+    }
+
+    // Cached menu items carry no restaurant data, so only changed or deleted items need this.
+    // Call it after evictCachedRestaurant: item fills are checked against the list version it bumps
+    public void evictCachedMenuItems(Collection<Long> menuItemIds) {
+        if (menuItemIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = menuItemIds.stream().map(itemId -> MENU_ITEM + itemId).toList();
+        redisTemplate.delete(keys);
+        restaurantLocalCache.evict(keys.toArray(String[]::new));
+    }
+
+    private static List<Long> menuItemIds(Restaurant restaurant) {
+        return restaurant.getMenuItems() == null ? List.of()
+                : restaurant.getMenuItems().stream().map(MenuItem::getId).filter(Objects::nonNull).toList();
+    }
+
+    /*
+     * Strong ETags for the restaurant endpoints, answered from Redis alone, so a 304 needs no
+     * body. Callers read them before loading the body, so a racing write can only leave the tag
+     * older than the body and cost one extra refetch, never pin a stale body to a current tag.
+     * The ApiResponse timestamp is not part of the version. Null when Redis is unavailable.
+     * The per-restaurant tags only read an existing version, and are null for ids that do not
+     * exist: the version is created by ensureRestaurantVersion once the body has loaded (the
+     * response that created it goes out untagged) and removed when the restaurant is deleted.
+     */
+
+    public String restaurantETag(Long id) {
+        return eTag("restaurant-" + id, restaurantVersions.peek(id));
+    }
+
+    public String menuETag(Long restaurantId) {
+        return eTag("menu-" + restaurantId, restaurantVersions.peek(restaurantId));
+    }
+
+    public void ensureRestaurantVersion(Long id) {
+        restaurantVersions.current(id);
+    }
+
+    public String restaurantListETag() {
+        return eTag("restaurants", restaurantVersions.currentList());
+    }
+
+    private static String eTag(String resource, String version) {
+        return version == null ? null : "\"" + resource + "-" + version + "\"";
+    }
 }
@@ -0,0 +1,252 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
+import com.ecommerce.orderevent.dtos.OrderLineDto;
+import com.ecommerce.orderevent.dtos.RestaurantStatsDto;
+import com.ecommerce.orderevent.entity.RestaurantDailyStats;
+import com.ecommerce.orderevent.entity.RestaurantStatsEvent;
+import com.ecommerce.orderevent.exception.ResourceNotFoundException;
+import com.ecommerce.orderevent.models.OrderEvent;
+import com.ecommerce.orderevent.repository.RestaurantDailyStatsRepository;
+import com.ecommerce.orderevent.repository.RestaurantStatsEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.ecommerce.orderevent.constants.ErrorMessages.RESTAURANT_NOT_FOUND;
+import static com.ecommerce.orderevent.constants.KafkaTopics.ORDER_EVENTS;
+import static com.ecommerce.orderevent.constants.OrderStatus.*;
+
+/**
+ * Per-restaurant daily counters built from the order events, so owners can read today's figures
+ * without pulling every order. Events are bucketed by the day the order reached the status, not
+ * the day they are consumed, so consumer lag across midnight still counts them on the right day.
+ * Each event is held in memory until the next flush, which runs every few seconds. One flush
+ * transaction marks every held event as counted in {@code restaurant_stats_events} and adds only
+ * the newly marked ones to {@code restaurant_daily_stats}, with one upsert per restaurant and day.
+ * Redeliveries and offset replays are therefore counted once, as long as they are at most
+ * {@code stats.dedup-retention-days} old. Older events are ignored, because their marks may have
+ * been purged. Instances share one consumer group, so partitions may move between them freely.
+ * Offsets are acknowledged manually, only once the flush that stored the events has committed.
+ * A flush that fails keeps its events for the next run. Events an instance held when it died are
+ * redelivered from the last committed offset, and their marks keep them from being counted twice.
+ */
+@Slf4j
+@Service
+public class RestaurantStatsService {
+
+    private final RestaurantDailyStatsRepository statsRepository;
+    private final RestaurantStatsEventRepository statsEventRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final int retentionDays;
+    private final TransactionTemplate transactionTemplate;
+
+    // events not flushed yet, one per (order, status) so a redelivery within a flush interval is held once;
+    // swapped out whole by a flush, together with the acknowledgments of the records they came from
+    private final Object pendingLock = new Object();
+    private volatile Map<RestaurantStatsEvent.Key, PendingEvent> pending = new ConcurrentHashMap<>();
+    private List<Acknowledgment> unacknowledged = new ArrayList<>();
+
+    public RestaurantStatsService(RestaurantDailyStatsRepository statsRepository,
+                                  RestaurantStatsEventRepository statsEventRepository,
+                                  ReferenceDataCache referenceDataCache,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${stats.dedup-retention-days:7}") int retentionDays) {
+        this.statsRepository = statsRepository;
+        this.statsEventRepository = statsEventRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+    }
+
+    @KafkaListener(topics = ORDER_EVENTS, groupId = "restaurant-stats", containerFactory = "manualAckContainerFactory")
+    public void consume(@Payload OrderEvent event,
+                        @Header(name = KafkaHeaders.RECEIVED_TIMESTAMP, required = false) Long recordTimestamp,
+                        Acknowledgment acknowledgment) {
+        PendingEvent held = hold(event, recordTimestamp);
+        synchronized (pendingLock) {
+            if (held != null) {
+                pending.putIfAbsent(new RestaurantStatsEvent.Key(event.getOrderId(), event.getStatus()), held);
+            }
+            // skipped records too, or their offsets would hold back the ones after them
+            unacknowledged.add(acknowledgment);
+        }
+    }
+
+    private PendingEvent hold(OrderEvent event, Long recordTimestamp) {
+        if (event.getOrderId() == null || event.getRestaurantId() == null || event.getStatus() == null) {
+            return null;
+        }
+        LocalDate statDate = eventTime(event, recordTimestamp).toLocalDate();
+        if (statDate.isBefore(LocalDate.now().minusDays(retentionDays))) {
+            log.debug("Ignoring stats event of order {} from {}, older than the dedup retention", event.getOrderId(), statDate);
+            return null;
+        }
+        return new PendingEvent(new RestaurantDailyStats.Key(event.getRestaurantId(), statDate), event);
+    }
+
+    @Scheduled(fixedDelayString = "${stats.flush-interval-ms:5000}")
+    public void flush() {
+        Map<RestaurantStatsEvent.Key, PendingEvent> drained;
+        List<Acknowledgment> acknowledgments;
+        synchronized (pendingLock) {
+            drained = pending;
+            acknowledgments = unacknowledged;
+            pending = new ConcurrentHashMap<>();
+            unacknowledged = new ArrayList<>();
+        }
+        if (drained.isEmpty() && acknowledgments.isEmpty()) {
+            return;
+        }
+        Map<RestaurantDailyStats.Key, RestaurantDailyStats> deltas;
+        try {
+            deltas = transactionTemplate.execute(status -> store(drained.values()));
+        } catch (RuntimeException e) {
+            // the whole flush rolled back, marks included, so hold every drained event again for the next run;
+            // its acknowledgments go back ahead of the newer ones so offsets are still committed in order
+            synchronized (pendingLock) {
+                drained.forEach(pending::putIfAbsent);
+                acknowledgments.addAll(unacknowledged);
+                unacknowledged = acknowledgments;
+            }
+            log.warn("⚠️ Restaurant stats flush failed, {} events kept for retry: {}", drained.size(), e.getMessage());
+            throw e;
+        }
+        // committed: the records can no longer be lost, so their offsets may be
+        acknowledgments.forEach(Acknowledgment::acknowledge);
+        if (!deltas.isEmpty()) {
+            log.debug("📊 Flushed stats deltas for {} restaurant days", deltas.size());
+        }
+    }
+
+    private Map<RestaurantDailyStats.Key, RestaurantDailyStats> store(Collection<PendingEvent> events) {
+        Map<RestaurantDailyStats.Key, RestaurantDailyStats> deltas = new LinkedHashMap<>();
+        for (PendingEvent held : events) {
+            OrderEvent event = held.event();
+            if (statsEventRepository.markCounted(event.getOrderId(), event.getStatus(), held.day().getStatDate()) == 0) {
+                continue; // counted before: redelivered or replayed
+            }
+            apply(deltas.computeIfAbsent(held.day(), RestaurantStatsService::empty), event);
+        }
+        for (RestaurantDailyStats delta : deltas.values()) {
+            statsRepository.addDeltas(delta.getRestaurantId(), delta.getStatDate(),
+                    delta.getPlaced(), delta.getAccepted(), delta.getRejected(), delta.getPaid(),
+                    delta.getItemCount(), delta.getPlacedValue(), delta.getRevenue());
+        }
+        return deltas;
+    }
+
+    // Marks only need to outlive the window in which an event can still be redelivered or replayed
+    @Scheduled(cron = "${stats.dedup-purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeCountedEvents() {
+        int purged = statsEventRepository.deleteCountedBefore(LocalDate.now().minusDays(retentionDays));
+        log.debug("Purged {} counted stats events", purged);
+    }
+
+    // Stored counters plus this instance's unflushed events; other instances' events show up within a flush interval
+    @Transactional(readOnly = true)
+    public RestaurantStatsDto getStats(Long restaurantId) {
+        referenceDataCache.getRestaurant(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException(RESTAURANT_NOT_FOUND + restaurantId));
+        RestaurantDailyStats.Key key = new RestaurantDailyStats.Key(restaurantId, LocalDate.now());
+        RestaurantDailyStats stats = empty(key);
+        statsRepository.findById(key).ifPresent(stored -> add(stats, stored));
+        for (PendingEvent held : pending.values()) {
+            if (held.day().equals(key)) {
+                apply(stats, held.event());
+            }
+        }
+
+        Map<String, Long> ordersByStatus = new LinkedHashMap<>();
+        ordersByStatus.put(PLACED, stats.getPlaced());
+        ordersByStatus.put(ACCEPTED, stats.getAccepted());
+        ordersByStatus.put(REJECTED, stats.getRejected());
+        ordersByStatus.put(PAYMENT_SUCCESS, stats.getPaid());
+        long placed = stats.getPlaced();
+        return new RestaurantStatsDto(
+                restaurantId,
+                key.getStatDate(),
+                ordersByStatus,
+                stats.getRevenue(),
+                placed == 0 ? 0.0 : (double) stats.getItemCount() / placed,
+                placed == 0 ? 0.0 : stats.getPlacedValue() / placed
+        );
+    }
+
+    // events from older producers carry no time; the record timestamp is when the outbox relay sent them
+    private static LocalDateTime eventTime(OrderEvent event, Long recordTimestamp) {
+        if (event.getOccurredAt() != null) {
+            return event.getOccurredAt();
+        }
+        if (recordTimestamp != null) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(recordTimestamp), ZoneId.systemDefault());
+        }
+        return LocalDateTime.now();
+    }
+
+    private record PendingEvent(RestaurantDailyStats.Key day, OrderEvent event) {}
+
+    private static void apply(RestaurantDailyStats stats, OrderEvent event) {
+        double price = event.getTotalPrice() != null ? event.getTotalPrice() : 0.0;
+        switch (event.getStatus()) {
+            case PLACED -> {
+                stats.setPlaced(stats.getPlaced() + 1);
+                stats.setItemCount(stats.getItemCount() + itemCount(event));
+                stats.setPlacedValue(stats.getPlacedValue() + price);
+            }
+            case ACCEPTED -> stats.setAccepted(stats.getAccepted() + 1);
+            case REJECTED -> stats.setRejected(stats.getRejected() + 1);
+            case PAYMENT_SUCCESS -> {
+                stats.setPaid(stats.getPaid() + 1);
+                stats.setRevenue(stats.getRevenue() + price);
+            }
+            default -> log.debug("Ignoring status {} of order {} for stats", event.getStatus(), event.getOrderId());
+        }
+    }
+
+    // events from older producers carry item ids only, one per item
+    private static long itemCount(OrderEvent event) {
+        if (event.getLines() != null) {
+            return event.getLines().stream()
+                    .map(OrderLineDto::getQuantity)
+                    .filter(Objects::nonNull)
+                    .mapToLong(Integer::longValue)
+                    .sum();
+        }
+        return event.getMenuItemIds() != null ? event.getMenuItemIds().size() : 0;
+    }
+
+    private static void add(RestaurantDailyStats target, RestaurantDailyStats source) {
+        target.setPlaced(target.getPlaced() + source.getPlaced());
+        target.setAccepted(target.getAccepted() + source.getAccepted());
+        target.setRejected(target.getRejected() + source.getRejected());
+        target.setPaid(target.getPaid() + source.getPaid());
+        target.setItemCount(target.getItemCount() + source.getItemCount());
+        target.setPlacedValue(target.getPlacedValue() + source.getPlacedValue());
+        target.setRevenue(target.getRevenue() + source.getRevenue());
+    }
+
+    private static RestaurantDailyStats empty(RestaurantDailyStats.Key key) {
+        RestaurantDailyStats stats = new RestaurantDailyStats();
+        stats.setRestaurantId(key.getRestaurantId());
+        stats.setStatDate(key.getStatDate());
+        return stats;
+    }
+}
@@ -1,8 +1,8 @@
 package com.ecommerce.orderevent.service;
 
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
 import com.ecommerce.orderevent.dtos.UserRequestDto;
 import com.ecommerce.orderevent.dtos.UserResponseDto;
-import com.ecommerce.orderevent.entity.Order;
 import com.ecommerce.orderevent.entity.User;
 import com.ecommerce.orderevent.exception.ResourceNotFoundException;
 import com.ecommerce.orderevent.repository.UserRepository;
@@ -18,10 +18,13 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, EmailService emailService){
+    private final ReferenceDataCache referenceDataCache;
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, EmailService emailService,
+                       ReferenceDataCache referenceDataCache){
         this.userRepository=userRepository;
         this.passwordEncoder=passwordEncoder;
         this.emailService=emailService;
+        this.referenceDataCache=referenceDataCache;
     }
 
     public UserResponseDto saveUser(UserRequestDto requestDto){
@@ -54,6 +57,7 @@ public class UserService {
         existingUser.setPassword(updatedUserDto.getPassword());
 
         User savedUser = userRepository.save(existingUser);
+        referenceDataCache.evictUser(id);
         return UserResponseDto.fromEntity(savedUser);
     }
 
@@ -66,17 +70,11 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException(USER_NOT_FOUND + email));
     }
 
-
-    public List<Order> getUserOrders(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException(USER_NOT_FOUND + userId));
-        return user.getOrders();
-    }
-
     public void deleteById(Long id){
         if (!userRepository.existsById(id)) {
             throw new ResourceNotFoundException(USER_NOT_FOUND + id);
         }
         userRepository.deleteById(id);
+        referenceDataCache.evictUser(id);
     }
 }
@@ -0,0 +1,31 @@
+package com.ecommerce.orderevent.utils;
+
+import com.ecommerce.orderevent.exception.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static com.ecommerce.orderevent.constants.ErrorMessages.INVALID_CURSOR;
+
+/**
+ * Position in an order listing sorted by (orderDate, id) descending: the last row of the
+ * previous page. Clients see it only as an opaque URL-safe token.
+ */
+public record OrderCursor(LocalDateTime orderDate, Long id) {
+
+    public String encode() {
+        String raw = orderDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(INVALID_CURSOR + token);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecommerce.orderevent.benchmark;
+
+import com.ecommerce.orderevent.config.ApiResponseWriters;
+import com.ecommerce.orderevent.config.JacksonConfig;
+import com.ecommerce.orderevent.dtos.*;
+import com.ecommerce.orderevent.fixtures.RestaurantFixtures;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.ecommerce.orderevent.constants.ApiResponseStatus.SUCCESS;
+
+/**
+ * ApiResponse serialization before and after the tuned JSON setup, on the largest bodies we
+ * send: GET /restaurants with every menu embedded, and an order with its lines.
+ * Run with: mvn -Pbenchmark -DskipTests test -Dbenchmark=ApiResponseSerialization
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"300"})
+    int restaurants;
+
+    @Param({"25"})
+    int menuItemsPerRestaurant;
+
+    private ObjectMapper baseline;
+    private ObjectWriter restaurantListWriter;
+    private ObjectWriter orderWriter;
+    private ApiResponse<List<RestaurantResponseDto>> restaurantList;
+    private ApiResponse<OrderResponseDto> order;
+
+    @Setup
+    public void setUp() {
+        // the mapper as configured before: reflection-based access, one untyped writer
+        baseline = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new Jdk8Module())
+                .registerModule(new ParameterNamesModule());
+        // what ApiResponseJsonConverter hands out for the controllers' declared return types
+        ObjectMapper tunedMapper = JacksonConfig.newObjectMapper();
+        ApiResponseWriters tuned = new ApiResponseWriters(tunedMapper.writer());
+        restaurantListWriter = tuned.writerFor(tunedMapper.getTypeFactory()
+                .constructType(new TypeReference<ApiResponse<List<RestaurantResponseDto>>>() {}));
+        orderWriter = tuned.writerFor(tunedMapper.getTypeFactory()
+                .constructType(new TypeReference<ApiResponse<OrderResponseDto>>() {}));
+
+        restaurantList = new ApiResponse<>(SUCCESS, "All restaurants fetched successfully!",
+                RestaurantFixtures.restaurantList(restaurants, menuItemsPerRestaurant), LocalDateTime.now());
+        order = new ApiResponse<>(SUCCESS, "Order details fetched successfully!", order(), LocalDateTime.now());
+    }
+
+    @Benchmark
+    public byte[] restaurantListBaseline() throws Exception {
+        return baseline.writer().writeValueAsBytes(restaurantList);
+    }
+
+    @Benchmark
+    public byte[] restaurantListTuned() throws Exception {
+        return restaurantListWriter.writeValueAsBytes(restaurantList);
+    }
+
+    @Benchmark
+    public byte[] orderBaseline() throws Exception {
+        return baseline.writer().writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] orderTuned() throws Exception {
+        return orderWriter.writeValueAsBytes(order);
+    }
+
+    private static OrderResponseDto order() {
+        OrderResponseDto order = new OrderResponseDto();
+        order.setId(42L);
+        order.setOrderDate(LocalDateTime.now());
+        order.setStatus("PLACED");
+        order.setTotalPrice(64.5);
+        UserResponseDto user = new UserResponseDto();
+        user.setId(7L);
+        user.setName("Jane Doe");
+        user.setEmail("jane@example.com");
+        order.setUser(user);
+        order.setRestaurant(RestaurantFixtures.restaurant(1));
+        List<OrderLineDto> lines = new ArrayList<>();
+        for (long i = 1; i <= 10; i++) {
+            lines.add(new OrderLineDto(i, "Dish " + i, 5.0 + i, 1));
+        }
+        order.setItems(lines);
+        return order;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.orderevent.benchmark;
+
+import com.ecommerce.orderevent.cache.CacheValueCodec;
+import com.ecommerce.orderevent.cache.JacksonCacheValueCodec;
+import com.ecommerce.orderevent.config.JacksonConfig;
+import com.ecommerce.orderevent.dtos.RestaurantResponseDto;
+import com.ecommerce.orderevent.fixtures.RestaurantFixtures;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode time of the restaurant:all value per codec setting. The encode results also
+ * report the encoded size of each setting as the encodedBytes counter.
+ * Run with: mvn -Pbenchmark -DskipTests test -Dbenchmark=CacheValueCodec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheValueCodecBenchmark {
+
+    private static final TypeReference<List<RestaurantResponseDto>> LIST = new TypeReference<>() {};
+
+    // json = what was stored before; json-gzip / smile / smile-gzip as set by cache.codec.*
+    @Param({"json", "json-gzip", "smile", "smile-gzip"})
+    String codec;
+
+    @Param({"50", "300"})
+    int restaurants;
+
+    @Param({"25"})
+    int menuItemsPerRestaurant;
+
+    private CacheValueCodec cacheValueCodec;
+    private List<RestaurantResponseDto> restaurantList;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        String[] setting = codec.split("-");
+        int compressAboveBytes = setting.length > 1 ? 4096 : 0;
+        cacheValueCodec = new JacksonCacheValueCodec(JacksonConfig.newObjectMapper(),
+                JacksonCacheValueCodec.Format.of(setting[0]), compressAboveBytes);
+        restaurantList = RestaurantFixtures.restaurantList(restaurants, menuItemsPerRestaurant);
+        encoded = cacheValueCodec.encode(restaurantList);
+    }
+
+    // Set, not summed, on every call, so the reported value is the size of one encoded value
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long encodedBytes;
+    }
+
+    @Benchmark
+    public byte[] encode(PayloadSize payloadSize) throws Exception {
+        byte[] bytes = cacheValueCodec.encode(restaurantList);
+        payloadSize.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<RestaurantResponseDto> decode() throws Exception {
+        return cacheValueCodec.decode(encoded, LIST);
+    }
+}
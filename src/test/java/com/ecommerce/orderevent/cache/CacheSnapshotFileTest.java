@@ -0,0 +1,73 @@
+package com.ecommerce.orderevent.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheSnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteThenRead_RoundTrip() throws Exception {
+        Path path = directory.resolve("nested").resolve("cache.snapshot");
+        List<CacheSnapshotFile.Entry> entries = List.of(
+                new CacheSnapshotFile.Entry("restaurant:1", "abc", new byte[]{1, 2, 3}),
+                new CacheSnapshotFile.Entry("restaurant:menu:1", "abc", new byte[0]),
+                new CacheSnapshotFile.Entry("restaurant:all", "xyz", new byte[]{(byte) 0x8b}));
+
+        CacheSnapshotFile.write(path, new CacheSnapshotFile.Snapshot(1234L, entries));
+        CacheSnapshotFile.Snapshot read = CacheSnapshotFile.read(path);
+
+        assertEquals(1234L, read.writtenAtMillis());
+        assertEquals(3, read.entries().size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(entries.get(i).key(), read.entries().get(i).key());
+            assertEquals(entries.get(i).version(), read.entries().get(i).version());
+            assertArrayEquals(entries.get(i).value(), read.entries().get(i).value());
+        }
+        try (var files = Files.list(path.getParent())) {
+            assertEquals(1, files.count()); // no temporary file left behind
+        }
+    }
+
+    @Test
+    void testWrite_ReplacesPreviousSnapshot() throws Exception {
+        Path path = directory.resolve("cache.snapshot");
+        CacheSnapshotFile.write(path, new CacheSnapshotFile.Snapshot(1L,
+                List.of(new CacheSnapshotFile.Entry("restaurant:1", "a", new byte[]{1}))));
+        CacheSnapshotFile.write(path, new CacheSnapshotFile.Snapshot(2L, List.of()));
+
+        CacheSnapshotFile.Snapshot read = CacheSnapshotFile.read(path);
+
+        assertEquals(2L, read.writtenAtMillis());
+        assertTrue(read.entries().isEmpty());
+    }
+
+    @Test
+    void testRead_TruncatedFileFails() throws Exception {
+        Path path = directory.resolve("cache.snapshot");
+        CacheSnapshotFile.write(path, new CacheSnapshotFile.Snapshot(1L,
+                List.of(new CacheSnapshotFile.Entry("restaurant:1", "a", new byte[]{1, 2, 3, 4}))));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 2));
+
+        assertThrows(IOException.class, () -> CacheSnapshotFile.read(path));
+    }
+
+    @Test
+    void testRead_OtherFileFails() throws Exception {
+        Path path = directory.resolve("cache.snapshot");
+        Files.writeString(path, "not a snapshot");
+
+        assertThrows(IOException.class, () -> CacheSnapshotFile.read(path));
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecommerce.orderevent.cache;
+
+import com.ecommerce.orderevent.config.JacksonConfig;
+import com.ecommerce.orderevent.dtos.RestaurantResponseDto;
+import com.ecommerce.orderevent.entity.MenuItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.ecommerce.orderevent.fixtures.RestaurantFixtures.restaurant;
+import static com.ecommerce.orderevent.fixtures.RestaurantFixtures.restaurantList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JacksonCacheValueCodecTest {
+
+    private static final TypeReference<List<RestaurantResponseDto>> LIST = new TypeReference<>() {};
+
+    private final ObjectMapper json = JacksonConfig.newObjectMapper();
+
+    @Test
+    void testSmile_RoundTripWithHeader() throws Exception {
+        CacheValueCodec codec = new JacksonCacheValueCodec(json, JacksonCacheValueCodec.Format.SMILE, 0);
+        List<RestaurantResponseDto> list = restaurantList(3, 5);
+
+        byte[] bytes = codec.encode(list);
+
+        assertEquals(":)\n", new String(bytes, 0, 3, StandardCharsets.US_ASCII));
+        assertEquals(list, codec.decode(bytes, LIST));
+        assertTrue(bytes.length < json.writeValueAsBytes(list).length);
+    }
+
+    @Test
+    void testCompression_OnlyAboveThreshold() throws Exception {
+        CacheValueCodec codec = new JacksonCacheValueCodec(json, JacksonCacheValueCodec.Format.SMILE, 512);
+        RestaurantResponseDto small = restaurant(1);
+        List<RestaurantResponseDto> large = restaurantList(50, 5);
+
+        byte[] smallBytes = codec.encode(small);
+        byte[] largeBytes = codec.encode(large);
+
+        assertNotEquals((byte) 0x1f, smallBytes[0]);
+        assertEquals((byte) 0x1f, largeBytes[0]);
+        assertEquals((byte) 0x8b, largeBytes[1]);
+        assertEquals(small, codec.decode(smallBytes, RestaurantResponseDto.class));
+        assertEquals(large, codec.decode(largeBytes, LIST));
+    }
+
+    @Test
+    void testLegacyJsonEntries_StillReadable() throws Exception {
+        CacheValueCodec codec = new JacksonCacheValueCodec(json, JacksonCacheValueCodec.Format.SMILE, 512);
+        List<RestaurantResponseDto> list = restaurantList(2, 5);
+        // what RestaurantService stored before: a JSON string through the string serializer
+        byte[] legacy = json.writeValueAsString(list).getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(list, codec.decode(legacy, LIST));
+    }
+
+    @Test
+    void testMixedRollout_EachFormatReadsTheOther() throws Exception {
+        CacheValueCodec jsonCodec = new JacksonCacheValueCodec(json, JacksonCacheValueCodec.Format.JSON, 256);
+        CacheValueCodec smileCodec = new JacksonCacheValueCodec(json, JacksonCacheValueCodec.Format.SMILE, 256);
+        List<RestaurantResponseDto> list = restaurantList(10, 5);
+
+        assertEquals(list, smileCodec.decode(jsonCodec.encode(list), LIST));
+        assertEquals(list, jsonCodec.decode(smileCodec.encode(list), LIST));
+    }
+
+    @Test
+    void testCachedMenu_RoundTripWithoutRestaurant() throws Exception {
+        CacheValueCodec codec = new JacksonCacheValueCodec(json, JacksonCacheValueCodec.Format.SMILE, 0);
+        MenuItem item = new MenuItem();
+        item.setId(10L);
+        item.setName("Pizza");
+        item.setPrice(12.5);
+
+        List<MenuItem> decoded = codec.decode(codec.encode(List.of(item)), new TypeReference<List<MenuItem>>() {});
+
+        assertEquals(List.of(item), decoded);
+        assertNull(decoded.get(0).getRestaurant());
+    }
+
+    @Test
+    void testFormatOf_CaseInsensitiveWithSmileDefault() {
+        assertEquals(JacksonCacheValueCodec.Format.JSON, JacksonCacheValueCodec.Format.of(" json "));
+        assertEquals(JacksonCacheValueCodec.Format.SMILE, JacksonCacheValueCodec.Format.of("Smile"));
+        assertEquals(JacksonCacheValueCodec.Format.SMILE, JacksonCacheValueCodec.Format.of(null));
+        assertThrows(IllegalArgumentException.class, () -> JacksonCacheValueCodec.Format.of("xml"));
+    }
+}
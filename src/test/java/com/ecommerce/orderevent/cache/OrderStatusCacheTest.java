@@ -0,0 +1,65 @@
+package com.ecommerce.orderevent.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderStatusCache orderStatusCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderStatusCache = new OrderStatusCache(redisTemplate, meterRegistry, 24);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testGet_CountsHitsAndMisses() {
+        when(valueOperations.get("order:status:1")).thenReturn("PLACED");
+        when(valueOperations.get("order:status:2")).thenReturn(null);
+
+        assertEquals(Optional.of("PLACED"), orderStatusCache.get(1L));
+        assertEquals(Optional.empty(), orderStatusCache.get(2L));
+
+        assertEquals(1.0, meterRegistry.get("order.status.cache.hits").counter().count());
+        assertEquals(1.0, meterRegistry.get("order.status.cache.misses").counter().count());
+    }
+
+    @Test
+    void testGet_RedisDownIsAMiss() {
+        when(valueOperations.get("order:status:1")).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(Optional.empty(), orderStatusCache.get(1L));
+        assertEquals(1.0, meterRegistry.get("order.status.cache.misses").counter().count());
+    }
+
+    @Test
+    void testPut_OverwritesButFillOnlyWhenAbsent() {
+        orderStatusCache.put(1L, "ACCEPTED");
+        orderStatusCache.putIfAbsent(1L, "PLACED");
+
+        verify(valueOperations).set("order:status:1", "ACCEPTED", Duration.ofHours(24));
+        verify(valueOperations).setIfAbsent("order:status:1", "PLACED", Duration.ofHours(24));
+    }
+}
@@ -0,0 +1,132 @@
+package com.ecommerce.orderevent.cache;
+
+import com.ecommerce.orderevent.cache.ReferenceDataCache.MenuItemRef;
+import com.ecommerce.orderevent.config.ReadYourWrites;
+import com.ecommerce.orderevent.entity.MenuItem;
+import com.ecommerce.orderevent.entity.Restaurant;
+import com.ecommerce.orderevent.entity.User;
+import com.ecommerce.orderevent.repository.MenuItemRepository;
+import com.ecommerce.orderevent.repository.RestaurantRepository;
+import com.ecommerce.orderevent.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private RestaurantRepository restaurantRepository;
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    private ReferenceDataCache referenceDataCache;
+    private Restaurant restaurant;
+    private MenuItem pizza;
+    private MenuItem pasta;
+
+    @BeforeEach
+    void setUp() {
+        referenceDataCache = new ReferenceDataCache(userRepository, restaurantRepository, menuItemRepository, 100, 60);
+
+        restaurant = new Restaurant();
+        restaurant.setId(1L);
+        restaurant.setName("Pizza Palace");
+
+        pizza = new MenuItem();
+        pizza.setId(10L);
+        pizza.setName("Pizza");
+        pizza.setPrice(200.0);
+        pizza.setRestaurant(restaurant);
+
+        pasta = new MenuItem();
+        pasta.setId(11L);
+        pasta.setName("Pasta");
+        pasta.setPrice(150.0);
+        pasta.setRestaurant(restaurant);
+    }
+
+    @Test
+    void testGetUser_LoadsOnceThenServesFromMemory() {
+        User user = new User();
+        user.setId(5L);
+        user.setName("Soumyadeep");
+        when(userRepository.findById(5L)).thenReturn(Optional.of(user));
+
+        assertEquals("Soumyadeep", referenceDataCache.getUser(5L).orElseThrow().name());
+        assertTrue(referenceDataCache.getUser(5L).isPresent());
+
+        verify(userRepository, times(1)).findById(5L);
+    }
+
+    @Test
+    void testGetRestaurant_LoadsOnThePrimary() {
+        when(restaurantRepository.findById(1L)).thenAnswer(invocation -> {
+            assertTrue(ReadYourWrites.isPinned());
+            return Optional.of(restaurant);
+        });
+
+        assertEquals("Pizza Palace", referenceDataCache.getRestaurant(1L).orElseThrow().name());
+        assertFalse(ReadYourWrites.isPinned());
+    }
+
+    @Test
+    void testGetUser_MissingUserIsNotCached() {
+        when(userRepository.findById(5L)).thenReturn(Optional.empty());
+
+        assertTrue(referenceDataCache.getUser(5L).isEmpty());
+        assertTrue(referenceDataCache.getUser(5L).isEmpty());
+
+        verify(userRepository, times(2)).findById(5L);
+    }
+
+    @Test
+    void testGetMenuItems_LoadsOnlyMissingIdsInOneQuery() {
+        when(menuItemRepository.findAllById(Set.of(10L))).thenReturn(List.of(pizza));
+        when(menuItemRepository.findAllById(Set.of(11L, 99L))).thenReturn(List.of(pasta));
+
+        referenceDataCache.getMenuItems(List.of(10L));
+        Map<Long, MenuItemRef> items = referenceDataCache.getMenuItems(List.of(10L, 11L, 99L));
+
+        assertEquals(2, items.size());
+        assertEquals(200.0, items.get(10L).price());
+        assertEquals(1L, items.get(11L).restaurantId());
+        assertFalse(items.containsKey(99L));
+    }
+
+    @Test
+    void testEvictMenuItem_ReloadsNewPrice() {
+        when(menuItemRepository.findAllById(Set.of(10L))).thenReturn(List.of(pizza));
+        referenceDataCache.getMenuItems(List.of(10L));
+
+        pizza.setPrice(250.0);
+        referenceDataCache.evictMenuItem(10L);
+
+        assertEquals(250.0, referenceDataCache.getMenuItems(List.of(10L)).get(10L).price());
+        verify(menuItemRepository, times(2)).findAllById(Set.of(10L));
+    }
+
+    @Test
+    void testEvictRestaurant_DropsItsMenuItems() {
+        when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
+        when(menuItemRepository.findAllById(Set.of(10L, 11L))).thenReturn(List.of(pizza, pasta));
+        referenceDataCache.getRestaurant(1L);
+        referenceDataCache.getMenuItems(List.of(10L, 11L));
+
+        referenceDataCache.evictRestaurant(1L);
+        referenceDataCache.getRestaurant(1L);
+        referenceDataCache.getMenuItems(List.of(10L, 11L));
+
+        verify(restaurantRepository, times(2)).findById(1L);
+        verify(menuItemRepository, times(2)).findAllById(Set.of(10L, 11L));
+    }
+}
@@ -0,0 +1,141 @@
+package com.ecommerce.orderevent.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantLocalCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private RestaurantLocalCache localCache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        localCache = new RestaurantLocalCache(redisTemplate, listenerContainer, 100, 60, 1000);
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    @Test
+    void testSubscribesToEvictionChannel() {
+        verify(listenerContainer).addMessageListener(localCache, new ChannelTopic(RestaurantLocalCache.CHANNEL));
+    }
+
+    @Test
+    void testGet_LoadsOnceThenServesLocally() {
+        assertEquals("pizza", localCache.get("restaurant:1", () -> load("pizza")));
+        assertEquals("pizza", localCache.get("restaurant:1", () -> load("other")));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_NullIsNotCached() {
+        assertNull(localCache.get("restaurant:1", () -> load(null)));
+        localCache.get("restaurant:1", () -> load(null));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testEvict_DropsLocallyAndPublishes() {
+        localCache.get("restaurant:1", () -> load("old"));
+        localCache.get("restaurant:all", () -> load("old list"));
+
+        localCache.evict("restaurant:1", "restaurant:all");
+
+        assertEquals("new", localCache.get("restaurant:1", () -> load("new")));
+        assertEquals("new list", localCache.get("restaurant:all", () -> load("new list")));
+        verify(redisTemplate).convertAndSend(RestaurantLocalCache.CHANNEL, "restaurant:1 restaurant:all");
+    }
+
+    @Test
+    void testEvict_PublishFailureStillDropsLocally() {
+        localCache.get("restaurant:1", () -> load("old"));
+        when(redisTemplate.convertAndSend(anyString(), any())).thenThrow(new RedisConnectionFailureException("down"));
+
+        localCache.evict("restaurant:1");
+
+        assertEquals("new", localCache.get("restaurant:1", () -> load("new")));
+    }
+
+    @Test
+    void testOnMessage_EvictionFromAnotherInstance() {
+        localCache.get("restaurant:1", () -> load("old"));
+        localCache.get("restaurant:2", () -> load("kept"));
+
+        localCache.onMessage(new DefaultMessage(RestaurantLocalCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "restaurant:1 restaurant:all".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals("new", localCache.get("restaurant:1", () -> load("new")));
+        assertEquals("kept", localCache.get("restaurant:2", () -> load("other")));
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+    }
+
+    @Test
+    void testGet_LoadRacingAnEvictionIsNotKept() {
+        // the loader read Redis just before another write evicted the key
+        String value = localCache.get("restaurant:1", () -> {
+            localCache.evict("restaurant:1");
+            return load("stale");
+        });
+
+        assertEquals("stale", value);
+        assertEquals("fresh", localCache.get("restaurant:1", () -> load("fresh")));
+    }
+
+    @Test
+    void testHottest_BoundedAndPutServesLocally() {
+        assertTrue(localCache.putIfCurrent("restaurant:1", () -> "one"));
+        assertTrue(localCache.putIfCurrent("restaurant:2", () -> "two"));
+
+        // the order among equally cold entries is up to Caffeine's frequency sketch
+        assertEquals(1, localCache.hottest(1).size());
+        assertEquals(Set.of("restaurant:1", "restaurant:2"), localCache.hottest(10).keySet());
+        assertEquals("one", localCache.get("restaurant:1", () -> load("other")));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testPutIfCurrent_EvictionDuringTheCheckWins() {
+        // the warm-up checked the version just before another instance's write was announced
+        boolean stored = localCache.putIfCurrent("restaurant:1", () -> {
+            localCache.onMessage(new DefaultMessage(RestaurantLocalCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    "restaurant:1".getBytes(StandardCharsets.UTF_8)), null);
+            return "stale";
+        });
+
+        assertFalse(stored);
+        assertEquals("fresh", localCache.get("restaurant:1", () -> load("fresh")));
+    }
+
+    @Test
+    void testPutIfCurrent_OutdatedValueIsNotStored() {
+        assertFalse(localCache.putIfCurrent("restaurant:1", () -> null));
+        assertEquals(0, localCache.hottest(10).size());
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.orderevent.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantVersionsTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private RestaurantVersions restaurantVersions;
+
+    @BeforeEach
+    void setUp() {
+        restaurantVersions = new RestaurantVersions(redisTemplate, 24);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testCurrent_ExistingVersion() {
+        when(valueOperations.get("restaurant:version:1")).thenReturn("abc");
+
+        assertEquals("abc", restaurantVersions.current(1L));
+        verify(valueOperations, never()).setIfAbsent(any(), any(), any(Duration.class));
+    }
+
+    @Test
+    void testCurrent_MissingVersionIsCreatedOnce() {
+        when(valueOperations.get("restaurant:version:all")).thenReturn(null);
+        when(valueOperations.setIfAbsent(eq("restaurant:version:all"), anyString(), eq(Duration.ofHours(24))))
+                .thenReturn(true);
+
+        String version = restaurantVersions.currentList();
+
+        assertNotNull(version);
+        verify(valueOperations).setIfAbsent("restaurant:version:all", version, Duration.ofHours(24));
+    }
+
+    @Test
+    void testCurrent_LostCreateRaceReadsWinner() {
+        when(valueOperations.get("restaurant:version:1")).thenReturn(null, "winner");
+        when(valueOperations.setIfAbsent(eq("restaurant:version:1"), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertEquals("winner", restaurantVersions.current(1L));
+    }
+
+    @Test
+    void testPeek_MissingVersionIsNotCreated() {
+        when(valueOperations.get("restaurant:version:404")).thenReturn(null);
+
+        assertNull(restaurantVersions.peek(404L));
+        verify(valueOperations, never()).setIfAbsent(any(), any(), any(Duration.class));
+    }
+
+    @Test
+    void testPeek_ExistingVersion() {
+        when(valueOperations.get("restaurant:version:1")).thenReturn("abc");
+
+        assertEquals("abc", restaurantVersions.peek(1L));
+    }
+
+    @Test
+    void testCurrent_RedisDownMeansNoVersion() {
+        when(valueOperations.get("restaurant:version:1")).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertNull(restaurantVersions.current(1L));
+    }
+
+    @Test
+    void testBump_ReplacesRestaurantAndListVersions() {
+        restaurantVersions.bump(1L);
+
+        verify(valueOperations).set(eq("restaurant:version:1"), anyString(), eq(Duration.ofHours(24)));
+        verify(valueOperations).set(eq("restaurant:version:all"), anyString(), eq(Duration.ofHours(24)));
+    }
+
+    @Test
+    void testBump_RedisDownIsSwallowed() {
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(valueOperations).set(anyString(), any(), any(Duration.class));
+
+        assertDoesNotThrow(() -> restaurantVersions.bump(1L));
+    }
+
+    @Test
+    void testRemove_LeavesNoVersionForTheDeletedRestaurant() {
+        restaurantVersions.remove(1L);
+
+        verify(redisTemplate).delete("restaurant:version:1");
+        verify(redisTemplate, never()).delete("restaurant:version:all");
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.orderevent.cache;
+
+import com.ecommerce.orderevent.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    // Starts the leader and waits until its loader is running, so the next callers have to wait
+    private Future<String> startLeader(SingleFlight singleFlight, CountDownLatch release, String result) throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> singleFlight.load("restaurant:all", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return result;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        return leader;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void testConcurrentMisses_LoadedOnce() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = startLeader(singleFlight, release, "list");
+
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            waiters.add(callers.submit(() -> singleFlight.load("restaurant:all", () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals("list", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> waiter : waiters) {
+            assertEquals("list", waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void testLeaderFailure_PropagatedToWaiters() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> singleFlight.load("restaurant:9", () -> {
+            loading.countDown();
+            await(release);
+            throw new ResourceNotFoundException("Restaurant not found with id: 9");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<String> waiter = callers.submit(() -> singleFlight.load("restaurant:9", () -> "other"));
+        Thread.sleep(100);
+        release.countDown();
+
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceNotFoundException.class, leaderError.getCause());
+        assertInstanceOf(ResourceNotFoundException.class, waiterError.getCause());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void testWaitTimeout_LoadsSeparately() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = startLeader(singleFlight, release, "slow");
+
+        String result = singleFlight.load("restaurant:all", () -> {
+            loads.incrementAndGet();
+            return "own";
+        });
+        release.countDown();
+
+        assertEquals("own", result);
+        assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testDifferentKeys_NotCoalesced() {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+
+        String nested = singleFlight.load("restaurant:1", () -> singleFlight.load("restaurant:2", () -> "two"));
+
+        assertEquals("two", nested);
+        assertEquals(0, singleFlight.inFlight());
+    }
+}
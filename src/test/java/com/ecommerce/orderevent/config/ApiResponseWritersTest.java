@@ -0,0 +1,65 @@
+package com.ecommerce.orderevent.config;
+
+import com.ecommerce.orderevent.dtos.ApiResponse;
+import com.ecommerce.orderevent.dtos.OrderSummaryDto;
+import com.ecommerce.orderevent.dtos.RestaurantResponseDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiResponseWritersTest {
+
+    private final ObjectMapper tuned = JacksonConfig.newObjectMapper();
+    private final ApiResponseWriters writers = new ApiResponseWriters(tuned.writer());
+
+    // the mapper as configured before the tuned setup
+    private final ObjectMapper plain = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private static RestaurantResponseDto restaurant(long id) {
+        RestaurantResponseDto restaurant = new RestaurantResponseDto();
+        restaurant.setId(id);
+        restaurant.setName("Restaurant " + id);
+        restaurant.setMenuItems(List.of());
+        return restaurant;
+    }
+
+    @Test
+    void testWriterFor_SameJsonAsBefore() throws Exception {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123_000_000);
+
+        assertSameJson(new ApiResponse<>("SUCCESS", "list", List.of(restaurant(1), restaurant(2)), timestamp),
+                new TypeReference<ApiResponse<List<RestaurantResponseDto>>>() {});
+        assertSameJson(new ApiResponse<>("SUCCESS", "one", restaurant(3), timestamp),
+                new TypeReference<ApiResponse<RestaurantResponseDto>>() {});
+        assertSameJson(new ApiResponse<>("SUCCESS", "summary", new OrderSummaryDto(1L, timestamp, "PLACED", 9.5, 2L, 3L), timestamp),
+                new TypeReference<ApiResponse<OrderSummaryDto>>() {});
+        assertSameJson(new ApiResponse<>("SUCCESS", "status", "ACCEPTED", timestamp),
+                new TypeReference<ApiResponse<String>>() {});
+        assertSameJson(new ApiResponse<Void>("SUCCESS", "deleted", null, timestamp),
+                new TypeReference<ApiResponse<Void>>() {});
+    }
+
+    private <T> void assertSameJson(ApiResponse<T> response, TypeReference<ApiResponse<T>> declared) throws Exception {
+        JavaType type = tuned.getTypeFactory().constructType(declared);
+        assertEquals(plain.writeValueAsString(response), writers.writerFor(type).writeValueAsString(response));
+    }
+
+    @Test
+    void testWriterFor_CachedPerDeclaredType() {
+        JavaType restaurantType = tuned.getTypeFactory().constructType(new TypeReference<ApiResponse<RestaurantResponseDto>>() {});
+        JavaType sameType = tuned.getTypeFactory().constructType(new TypeReference<ApiResponse<RestaurantResponseDto>>() {});
+        JavaType stringType = tuned.getTypeFactory().constructType(new TypeReference<ApiResponse<String>>() {});
+
+        assertTrue(ApiResponseWriters.isEnvelope(restaurantType));
+        assertFalse(ApiResponseWriters.isEnvelope(tuned.getTypeFactory().constructType(RestaurantResponseDto.class)));
+        assertSame(writers.writerFor(restaurantType), writers.writerFor(sameType));
+        assertNotSame(writers.writerFor(restaurantType), writers.writerFor(stringType));
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.orderevent.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final ReplicaRoutingDataSource routing =
+            new ReplicaRoutingDataSource(mock(DataSource.class), mock(DataSource.class));
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testReadOnlyTransaction_GoesToReplica() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testWriteOrNoTransaction_GoesToPrimary() {
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testPinnedThread_ReadsFromPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object target = ReadYourWrites.onPrimary(routing::determineCurrentLookupKey);
+
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, target);
+        assertFalse(ReadYourWrites.isPinned());
+        assertEquals(ReplicaRoutingDataSource.Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testNestedPins_OuterPinSurvivesInnerClose() {
+        try (ReadYourWrites.Pin outer = ReadYourWrites.pin()) {
+            ReadYourWrites.onPrimary(() -> null);
+            assertTrue(ReadYourWrites.isPinned());
+        }
+        assertFalse(ReadYourWrites.isPinned());
+    }
+}
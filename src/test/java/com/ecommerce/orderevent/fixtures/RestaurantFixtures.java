@@ -0,0 +1,46 @@
+package com.ecommerce.orderevent.fixtures;
+
+import com.ecommerce.orderevent.dtos.MenuItemResponseDto;
+import com.ecommerce.orderevent.dtos.RestaurantResponseDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Restaurant DTOs shaped like the cached restaurant:all value, shared by the codec tests and the
+ * serialization benchmarks so both measure the same payload.
+ */
+public final class RestaurantFixtures {
+    private RestaurantFixtures() {} // prevent instantiation
+
+    // Every restaurant embeds its menu, and every item its restaurant header, as the API returns them
+    public static List<RestaurantResponseDto> restaurantList(int restaurants, int menuItemsPerRestaurant) {
+        List<RestaurantResponseDto> list = new ArrayList<>(restaurants);
+        for (long r = 1; r <= restaurants; r++) {
+            RestaurantResponseDto restaurant = restaurant(r);
+            List<MenuItemResponseDto> menu = new ArrayList<>(menuItemsPerRestaurant);
+            for (long m = 1; m <= menuItemsPerRestaurant; m++) {
+                MenuItemResponseDto item = new MenuItemResponseDto();
+                item.setId(r * 1000 + m);
+                item.setName("Dish " + m);
+                item.setDescription("House special number " + m + " with seasonal sides");
+                item.setPrice(5.0 + m);
+                item.setRestaurant(restaurant(r));
+                menu.add(item);
+            }
+            restaurant.setMenuItems(menu);
+            list.add(restaurant);
+        }
+        return list;
+    }
+
+    // Header fields only, without a menu
+    public static RestaurantResponseDto restaurant(long id) {
+        RestaurantResponseDto restaurant = new RestaurantResponseDto();
+        restaurant.setId(id);
+        restaurant.setName("Restaurant " + id);
+        restaurant.setAddress(id + " Market Street, Springfield");
+        restaurant.setContact("+1-555-" + (1000 + id));
+        return restaurant;
+    }
+}
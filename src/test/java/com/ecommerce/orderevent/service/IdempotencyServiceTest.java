@@ -0,0 +1,218 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.dtos.OrderResponseDto;
+import com.ecommerce.orderevent.exception.IdempotencyKeyInProgressException;
+import com.ecommerce.orderevent.exception.IdempotencyKeyReusedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private IdempotencyService idempotencyService;
+    private OrderResponseDto order;
+    private final Map<String, Object> request = Map.of("userId", 1, "menuItemIds", List.of(3, 4));
+
+    private String done(OrderResponseDto result) throws Exception {
+        return "DONE:" + idempotencyService.fingerprint(request) + ":" + objectMapper.writeValueAsString(result);
+    }
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(redisTemplate, objectMapper, 86400, 30, 200, 5);
+        order = new OrderResponseDto();
+        order.setId(7L);
+        order.setStatus("PLACED");
+        order.setTotalPrice(350.0);
+        order.setOrderDate(LocalDateTime.of(2025, 1, 1, 12, 0));
+    }
+
+    @Test
+    void testExecute_FirstRequestRunsActionAndStoresResult() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("idempotency:order:1:abc"),
+                eq(IdempotencyService.PENDING + ":" + idempotencyService.fingerprint(request)), any(Duration.class)))
+                .thenReturn(true);
+
+        OrderResponseDto result = idempotencyService.execute("order:1:abc", request, OrderResponseDto.class, () -> order);
+
+        assertSame(order, result);
+        verify(valueOperations).set(eq("idempotency:order:1:abc"), eq(done(order)), eq(Duration.ofSeconds(86400)));
+    }
+
+    @Test
+    void testExecute_ReplayReturnsStoredResultWithoutRunningAction() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("idempotency:order:1:abc")).thenReturn(done(order));
+        AtomicInteger calls = new AtomicInteger();
+
+        OrderResponseDto result = idempotencyService.execute("order:1:abc", request, OrderResponseDto.class, () -> {
+            calls.incrementAndGet();
+            return order;
+        });
+
+        assertEquals(0, calls.get());
+        assertEquals(order, result);
+    }
+
+    @Test
+    void testExecute_DuplicateWaitsForPendingRequest() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("idempotency:order:1:abc"))
+                .thenReturn(IdempotencyService.PENDING + ":" + idempotencyService.fingerprint(request),
+                        IdempotencyService.PENDING + ":" + idempotencyService.fingerprint(request), done(order));
+
+        OrderResponseDto result = idempotencyService.execute("order:1:abc", request, OrderResponseDto.class, () -> fail("duplicate must not run"));
+
+        assertEquals(7L, result.getId());
+        verify(valueOperations, times(3)).get("idempotency:order:1:abc");
+    }
+
+    @Test
+    void testExecute_DuplicateGivesUpWhenFirstRequestNeverFinishes() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("idempotency:order:1:abc")).thenReturn(IdempotencyService.PENDING);
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> idempotencyService.execute("order:1:abc", request, OrderResponseDto.class, () -> order));
+    }
+
+    @Test
+    void testExecute_ResultWrittenBeforeFingerprints_IsStillReplayed() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("idempotency:order:1:abc")).thenReturn(objectMapper.writeValueAsString(order));
+
+        OrderResponseDto result = idempotencyService.execute("order:1:abc", request, OrderResponseDto.class, () -> fail("replay must not run"));
+
+        assertEquals(7L, result.getId());
+    }
+
+    @Test
+    void testExecute_KeyReusedWithDifferentBody_Rejected() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("idempotency:order:1:abc")).thenReturn(done(order));
+        Map<String, Object> otherRequest = Map.of("userId", 1, "menuItemIds", List.of(5));
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute("order:1:abc", otherRequest,
+                OrderResponseDto.class, () -> fail("must not run")));
+    }
+
+    @Test
+    void testExecute_PendingKeyReusedWithDifferentBody_RejectedWithoutWaiting() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("idempotency:order:1:abc")).thenReturn(IdempotencyService.PENDING + ":other");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute("order:1:abc", request,
+                OrderResponseDto.class, () -> order));
+        verify(valueOperations, times(1)).get("idempotency:order:1:abc");
+    }
+
+    @Test
+    void testExecute_ResultStoreIsRetried() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(true);
+        doThrow(new RedisConnectionFailureException("blip")).doNothing()
+                .when(valueOperations).set(anyString(), any(), any(Duration.class));
+
+        OrderResponseDto result = idempotencyService.execute("order:1:abc", request, OrderResponseDto.class, () -> order);
+
+        assertSame(order, result);
+        verify(valueOperations, times(2)).set(eq("idempotency:order:1:abc"), eq(done(order)), any(Duration.class));
+    }
+
+    @Test
+    void testExecute_FailedActionReleasesKey() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("order:1:abc", request, OrderResponseDto.class,
+                () -> { throw new IllegalStateException("boom"); }));
+
+        verify(redisTemplate).delete("idempotency:order:1:abc");
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+    }
+
+    @Test
+    void testExecute_DataAccessFailureOfTheActionIsNotARedisOutage() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(true);
+        AtomicInteger runs = new AtomicInteger();
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("duplicate key");
+
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> idempotencyService.execute("order:1:abc", request, OrderResponseDto.class, () -> {
+                    runs.incrementAndGet();
+                    throw failure;
+                }));
+
+        assertSame(failure, thrown);
+        assertEquals(1, runs.get());
+        verify(redisTemplate).delete("idempotency:order:1:abc");
+    }
+
+    @Test
+    void testExecute_FallsBackInProcessAndCollapsesConcurrentDuplicates() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        idempotencyService = new IdempotencyService(redisTemplate, objectMapper, 86400, 30, 5000, 5);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<OrderResponseDto> slowPlaceOrder = () -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return order;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<OrderResponseDto> first = executor.submit(() -> idempotencyService.execute("order:1:abc", request, OrderResponseDto.class, slowPlaceOrder));
+            Future<OrderResponseDto> second = executor.submit(() -> idempotencyService.execute("order:1:abc", request, OrderResponseDto.class, slowPlaceOrder));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertSame(order, first.get(5, TimeUnit.SECONDS));
+            assertSame(order, second.get(5, TimeUnit.SECONDS));
+            assertSame(order, idempotencyService.execute("order:1:abc", request, OrderResponseDto.class, slowPlaceOrder));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.ecommerce.orderevent.service;
 
+import com.ecommerce.orderevent.cache.CacheValueCodec;
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
+import com.ecommerce.orderevent.cache.RestaurantLocalCache;
+import com.ecommerce.orderevent.cache.RestaurantVersions;
 import com.ecommerce.orderevent.dtos.MenuItemRequestDto;
 import com.ecommerce.orderevent.dtos.MenuItemResponseDto;
 import com.ecommerce.orderevent.entity.MenuItem;
@@ -10,13 +14,20 @@ import com.ecommerce.orderevent.repository.RestaurantRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
 
 import java.util.*;
+import java.util.function.Supplier;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,12 +39,31 @@ class MenuItemServiceTest {
     private MenuItemRepository menuItemRepository;
     @Mock
     private RestaurantRepository restaurantRepository;
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+    @Mock
+    private RestaurantService restaurantService;
+    @Mock
+    private RedisTemplate<String, byte[]> cacheRedisTemplate;
+    @Mock
+    private ValueOperations<String, byte[]> valueOps;
+    @Mock
+    private CacheValueCodec cacheValueCodec;
+    @Mock
+    private RestaurantLocalCache restaurantLocalCache;
+    @Mock
+    private RestaurantVersions restaurantVersions;
 
     private Restaurant restaurant;
     private MenuItem menuItem;
 
     @BeforeEach
     void setUp(){
+        lenient().when(cacheRedisTemplate.opsForValue()).thenReturn(valueOps);
+        // local tier always misses here; RestaurantLocalCacheTest covers it
+        lenient().when(restaurantLocalCache.get(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
         restaurant = new Restaurant();
         restaurant.setId(1L);
         restaurant.setName("Test Restaurant");
@@ -68,6 +98,7 @@ class MenuItemServiceTest {
         assertEquals("Pizza", captured.getName());
         assertEquals(12.5, captured.getPrice());
         assertEquals(restaurant, captured.getRestaurant());
+        verify(restaurantService, times(1)).evictCachedRestaurant(1L);
     }
 
     @Test
@@ -122,6 +153,28 @@ class MenuItemServiceTest {
         assertEquals("Test Restaurant", result.getRestaurant().getName());
         verify(menuItemRepository, times(1)).findById(10L);
         verify(menuItemRepository, times(1)).save(any(MenuItem.class));
+        verify(restaurantService, times(1)).evictCachedRestaurant(1L);
+    }
+
+    @Test
+    void testUpdateMenuItem_MovedToOtherRestaurant_EvictsBoth() {
+        Restaurant other = new Restaurant();
+        other.setId(2L);
+        MenuItemRequestDto requestDto = new MenuItemRequestDto();
+        requestDto.setName("Pizza");
+        requestDto.setRestaurantId(2L);
+
+        when(menuItemRepository.findById(10L)).thenReturn(Optional.of(menuItem));
+        when(restaurantRepository.findById(2L)).thenReturn(Optional.of(other));
+        when(menuItemRepository.save(any(MenuItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        menuItemService.updateMenuItem(10L, requestDto);
+
+        // item keys go after the bumps, so a racing item fill either sees a new version or is deleted
+        InOrder order = inOrder(restaurantService);
+        order.verify(restaurantService, times(1)).evictCachedRestaurant(1L);
+        order.verify(restaurantService, times(1)).evictCachedRestaurant(2L);
+        order.verify(restaurantService, times(1)).evictCachedMenuItems(List.of(10L));
     }
 
     @Test
@@ -143,6 +196,57 @@ class MenuItemServiceTest {
         assertEquals("Pizza", result.getName());
     }
 
+    @Test
+    void testGetMenuItemsByRestaurant_CachesDetachedCopies() throws Exception {
+        restaurant.setMenuItems(Collections.singletonList(menuItem));
+        when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{1});
+
+        List<MenuItem> items = menuItemService.getMenuItemsByRestaurant(1L);
+
+        assertEquals(10L, items.get(0).getId());
+        assertNull(items.get(0).getRestaurant());
+        verify(restaurantService, times(1)).fillIfUnchanged(eq("restaurant:menu:1"), any(byte[].class), anyLong(), any(), any());
+    }
+
+    @Test
+    void testGetMenuItemsByRestaurant_CacheHit() throws Exception {
+        byte[] cached = {1};
+        when(valueOps.get("restaurant:menu:1")).thenReturn(cached);
+        when(cacheValueCodec.decode(eq(cached), ArgumentMatchers.<TypeReference<List<MenuItem>>>any()))
+                .thenReturn(List.of(menuItem));
+
+        List<MenuItem> items = menuItemService.getMenuItemsByRestaurant(1L);
+
+        assertEquals("Pizza", items.get(0).getName());
+        verifyNoInteractions(restaurantRepository);
+    }
+
+    @Test
+    void testFindMenuItem_CacheHit() throws Exception {
+        byte[] cached = {1};
+        when(valueOps.get("menuitem:10")).thenReturn(cached);
+        when(cacheValueCodec.decode(eq(cached), ArgumentMatchers.<TypeReference<MenuItem>>any())).thenReturn(menuItem);
+
+        assertEquals("Pizza", menuItemService.findMenuItem(10L).getName());
+        verifyNoInteractions(menuItemRepository);
+    }
+
+    @Test
+    void testFindMenuItem_CorruptCacheFallsBackToDb() throws Exception {
+        byte[] cached = {1};
+        when(valueOps.get("menuitem:10")).thenReturn(cached);
+        when(cacheValueCodec.decode(eq(cached), ArgumentMatchers.<TypeReference<MenuItem>>any()))
+                .thenThrow(new RuntimeException("parse error"));
+        when(menuItemRepository.findById(10L)).thenReturn(Optional.of(menuItem));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{2});
+
+        MenuItem result = menuItemService.findMenuItem(10L);
+
+        assertEquals("Pizza", result.getName());
+        verify(restaurantService, times(1)).fillIfUnchanged(eq("menuitem:10"), any(byte[].class), anyLong(), any(), any());
+    }
+
     @Test
     void testFindMenuItem_NotFound() {
         when(menuItemRepository.findById(99L)).thenReturn(Optional.empty());
@@ -153,20 +257,24 @@ class MenuItemServiceTest {
     @Test
     void testDeleteMenuItem_Success() {
         Long menuItemId = 10L;
-        when(menuItemRepository.existsById(menuItemId)).thenReturn(true);
+        // loaded rather than checked, to know whose menu changed
+        when(menuItemRepository.findById(menuItemId)).thenReturn(Optional.of(menuItem));
         doNothing().when(menuItemRepository).deleteById(menuItemId);
         menuItemService.deleteMenuItem(menuItemId);
-        verify(menuItemRepository, times(1)).existsById(menuItemId);
+        verify(menuItemRepository, times(1)).findById(menuItemId);
         verify(menuItemRepository, times(1)).deleteById(menuItemId);
+        verify(referenceDataCache, times(1)).evictMenuItem(menuItemId);
+        verify(restaurantService, times(1)).evictCachedRestaurant(1L);
+        verify(restaurantService, times(1)).evictCachedMenuItems(List.of(menuItemId));
     }
 
     @Test
     void testDeleteMenuItem_NotFound() {
         Long menuItemId = 99L;
-        when(menuItemRepository.existsById(menuItemId)).thenReturn(false);
+        when(menuItemRepository.findById(menuItemId)).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class,
                 () -> menuItemService.deleteMenuItem(menuItemId));
-        verify(menuItemRepository, times(1)).existsById(menuItemId);
+        verify(menuItemRepository, times(1)).findById(menuItemId);
         verify(menuItemRepository, never()).deleteById(menuItemId);
     }
 }
@@ -1,5 +1,6 @@
 package com.ecommerce.orderevent.service;
 
+import com.ecommerce.orderevent.dtos.OrderLineDto;
 import com.ecommerce.orderevent.entity.MenuItem;
 import com.ecommerce.orderevent.entity.Restaurant;
 import com.ecommerce.orderevent.entity.User;
@@ -94,6 +95,25 @@ class NotificationServiceTest {
                 .sendEmail(eq(user.getEmail()), contains("Order PLACED"), anyString());
     }
 
+    @Test
+    void testProcessNotification_UsesLineSnapshotFromEvent() {
+        event.setStatus("PLACED");
+        event.setLines(List.of(new OrderLineDto(100L, "Margherita Pizza", 200.0, 1),
+                new OrderLineDto(101L, "Garlic Bread", 100.0, 2)));
+        event.setTotalPrice(400.0);
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(restaurantRepository.findById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+
+        notificationService.processNotification(event);
+
+        verify(emailService, times(1))
+                .sendEmail(eq(user.getEmail()), contains("Order PLACED"), contains("Garlic Bread × 2"));
+        verify(emailService, times(1))
+                .sendEmail(eq(restaurant.getEmail()), contains("New Order Received"), contains("₹400.0"));
+        verifyNoInteractions(menuItemRepository);
+    }
+
     @Test
     void testProcessNotification_Accepted() {
         event.setStatus("ACCEPTED");
@@ -0,0 +1,81 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.models.OrderEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEventPublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, OrderEvent> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderEventPublisher orderEventPublisher;
+    private final OrderEvent event = new OrderEvent(1L, 2L, 3L, List.of(4L), "PLACED");
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderEventPublisher = new OrderEventPublisher(kafkaTemplate, meterRegistry);
+    }
+
+    @Test
+    void testPublish_DoesNotWaitForAcknowledgement() {
+        CompletableFuture<SendResult<String, OrderEvent>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send("order-events", "1", event)).thenReturn(pending);
+
+        CompletableFuture<SendResult<String, OrderEvent>> result = orderEventPublisher.publish("order-events", event);
+
+        assertFalse(result.isDone());
+        pending.complete(null);
+        assertTrue(result.isDone());
+        assertEquals(1.0, meterRegistry.get("order.events.sent").counter().count());
+    }
+
+    @Test
+    void testPublish_KeysEventsByOrderId() {
+        when(kafkaTemplate.send(anyString(), anyString(), any(OrderEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        orderEventPublisher.publish("order-events", new OrderEvent(42L, 2L, 3L, List.of(4L), "PLACED"));
+        orderEventPublisher.publish("order-events", new OrderEvent(42L, 2L, 3L, List.of(4L), "ACCEPTED"));
+
+        verify(kafkaTemplate, times(2)).send(eq("order-events"), eq("42"), any(OrderEvent.class));
+    }
+
+    @Test
+    void testPublish_CountsFailedSends() {
+        when(kafkaTemplate.send("order-events", "1", event))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("no ack")));
+
+        CompletableFuture<SendResult<String, OrderEvent>> result = orderEventPublisher.publish("order-events", event);
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(1.0, meterRegistry.get("order.events.failed").counter().count());
+        assertEquals(0.0, meterRegistry.get("order.events.sent").counter().count());
+    }
+
+    @Test
+    void testPublish_BufferFullBecomesFailedFuture() {
+        when(kafkaTemplate.send("order-events", "1", event)).thenThrow(new TimeoutException("buffer full"));
+
+        CompletableFuture<SendResult<String, OrderEvent>> result = orderEventPublisher.publish("order-events", event);
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(1.0, meterRegistry.get("order.events.failed").counter().count());
+    }
+}
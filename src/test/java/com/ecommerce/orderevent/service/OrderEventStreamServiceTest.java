@@ -0,0 +1,171 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.dtos.OrderStatusEventDto;
+import com.ecommerce.orderevent.exception.ResourceNotFoundException;
+import com.ecommerce.orderevent.models.OrderEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEventStreamServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    // Keeps what would have been written to the client
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> statuses = new ArrayList<>();
+        int heartbeats;
+        boolean completed;
+        boolean broken;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            builder.build().forEach(part -> {
+                if (part.getData() instanceof OrderStatusEventDto event) {
+                    statuses.add(event.getStatus());
+                } else if (part.getData().toString().contains("heartbeat")) {
+                    heartbeats++;
+                }
+            });
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+
+    private OrderEventStreamService service(int bufferSize, Executor executor) {
+        return new OrderEventStreamService(orderService, new SimpleMeterRegistry(), 60_000, bufferSize, executor) {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private static OrderEvent event(Long orderId, String status) {
+        return new OrderEvent(orderId, 1L, 2L, List.of(3L), status);
+    }
+
+    @Test
+    void testSubscribe_SendsCurrentStatusThenTransitions() {
+        OrderEventStreamService streams = service(16, Runnable::run);
+        when(orderService.getOrderStatus(5L)).thenReturn("PLACED");
+
+        streams.subscribe(5L);
+        streams.consume(event(5L, "ACCEPTED"));
+        streams.consume(event(6L, "REJECTED")); // another order
+
+        assertEquals(List.of("PLACED", "ACCEPTED"), emitters.get(0).statuses);
+        assertFalse(emitters.get(0).completed);
+        assertEquals(1, streams.subscriberCount());
+    }
+
+    @Test
+    void testFinalStatus_CompletesAndUnsubscribes() {
+        OrderEventStreamService streams = service(16, Runnable::run);
+        when(orderService.getOrderStatus(5L)).thenReturn("ACCEPTED");
+
+        streams.subscribe(5L);
+        streams.consume(event(5L, "PAYMENT_SUCCESS"));
+        streams.consume(event(5L, "PAYMENT_SUCCESS"));
+
+        assertEquals(List.of("ACCEPTED", "PAYMENT_SUCCESS"), emitters.get(0).statuses);
+        assertTrue(emitters.get(0).completed);
+        assertEquals(0, streams.subscriberCount());
+    }
+
+    @Test
+    void testStaleOrRepeatedStatus_IsNotSentAgain() {
+        OrderEventStreamService streams = service(16, Runnable::run);
+        when(orderService.getOrderStatus(5L)).thenReturn("ACCEPTED");
+
+        streams.subscribe(5L);
+        // the event consumer can lag behind the status cache
+        streams.consume(event(5L, "PLACED"));
+        streams.consume(event(5L, "ACCEPTED"));
+
+        assertEquals(List.of("ACCEPTED"), emitters.get(0).statuses);
+    }
+
+    @Test
+    void testFanOut_EverySubscriberOfTheOrder() {
+        OrderEventStreamService streams = service(16, Runnable::run);
+        when(orderService.getOrderStatus(5L)).thenReturn("PLACED");
+
+        streams.subscribe(5L);
+        streams.subscribe(5L);
+        streams.consume(event(5L, "REJECTED"));
+
+        emitters.forEach(emitter -> assertEquals(List.of("PLACED", "REJECTED"), emitter.statuses));
+        assertEquals(0, streams.subscriberCount());
+    }
+
+    @Test
+    void testSubscribe_UnknownOrder_NotRegistered() {
+        OrderEventStreamService streams = service(16, Runnable::run);
+        when(orderService.getOrderStatus(99L)).thenThrow(new ResourceNotFoundException("Order item not found with id: 99"));
+
+        assertThrows(ResourceNotFoundException.class, () -> streams.subscribe(99L));
+        assertEquals(0, streams.subscriberCount());
+    }
+
+    @Test
+    void testSlowClient_BufferOverflowClosesConnection() {
+        List<Runnable> pending = new ArrayList<>();
+        OrderEventStreamService streams = service(2, pending::add); // sender never gets to run
+        when(orderService.getOrderStatus(5L)).thenReturn("PLACED");
+
+        streams.subscribe(5L);
+        streams.heartbeat();
+        streams.heartbeat();
+
+        assertTrue(emitters.get(0).completed);
+        assertEquals(0, streams.subscriberCount());
+    }
+
+    @Test
+    void testClientGone_Unsubscribes() {
+        OrderEventStreamService streams = service(16, Runnable::run);
+        when(orderService.getOrderStatus(5L)).thenReturn("PLACED");
+        streams.subscribe(5L);
+
+        emitters.get(0).broken = true;
+        streams.consume(event(5L, "ACCEPTED"));
+
+        assertEquals(0, streams.subscriberCount());
+    }
+
+    @Test
+    void testHeartbeat_SentToOpenStreams() {
+        OrderEventStreamService streams = service(16, Runnable::run);
+        when(orderService.getOrderStatus(5L)).thenReturn("PLACED");
+        streams.subscribe(5L);
+
+        streams.heartbeat();
+
+        assertEquals(1, emitters.get(0).heartbeats);
+    }
+}
@@ -0,0 +1,145 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
+import com.ecommerce.orderevent.dtos.OrderSummaryDto;
+import com.ecommerce.orderevent.exception.InvalidExportFormatException;
+import com.ecommerce.orderevent.exception.ResourceNotFoundException;
+import com.ecommerce.orderevent.repository.OrderRepository;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderExportService orderExportService;
+
+    @BeforeEach
+    void setUp() {
+        // configured like Spring Boot's mapper: ISO dates rather than arrays
+        JsonMapper objectMapper = JsonMapper.builder().findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        orderExportService = new OrderExportService(orderRepository, referenceDataCache, objectMapper, transactionManager);
+    }
+
+    private void restaurantExists(Long id) {
+        when(referenceDataCache.getRestaurant(id))
+                .thenReturn(Optional.of(new ReferenceDataCache.RestaurantRef(id, "Pizza Place", "Main St", "123")));
+    }
+
+    private static OrderSummaryDto summary(Long id, String status) {
+        return new OrderSummaryDto(id, LocalDateTime.of(2025, 3, 1, 12, 30), status, 25.5, 7L, 1L);
+    }
+
+    @Test
+    void testExport_Ndjson_WritesOneObjectPerLineInReadOnlyTransaction() throws IOException {
+        restaurantExists(1L);
+        when(orderRepository.streamForExport(eq(1L), any(), any()))
+                .thenReturn(Stream.of(summary(10L, "PLACED"), summary(11L, "ACCEPTED")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.export(1L, null, null, OrderExportService.Format.NDJSON).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":10,"));
+        assertTrue(lines[0].contains("\"orderDate\":\"2025-03-01T12:30:00\""));
+        assertTrue(lines[1].contains("\"status\":\"ACCEPTED\""));
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void testExport_Csv_WritesHeaderAndRows() throws IOException {
+        restaurantExists(1L);
+        when(orderRepository.streamForExport(eq(1L), any(), any()))
+                .thenReturn(Stream.of(summary(10L, "PLACED"), summary(11L, "needs, \"quoting\"")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.export(1L, null, null, OrderExportService.Format.CSV).writeTo(out);
+
+        assertEquals(OrderExportService.CSV_HEADER + "\n"
+                        + "10,2025-03-01T12:30,PLACED,25.5,7,1\n"
+                        + "11,2025-03-01T12:30,\"needs, \"\"quoting\"\"\",25.5,7,1\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExport_DateRange_ToIsInclusive() throws IOException {
+        restaurantExists(1L);
+        when(orderRepository.streamForExport(anyLong(), any(), any())).thenReturn(Stream.empty());
+
+        orderExportService.export(1L, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31),
+                OrderExportService.Format.NDJSON).writeTo(new ByteArrayOutputStream());
+
+        verify(orderRepository).streamForExport(1L,
+                LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 4, 1, 0, 0));
+    }
+
+    @Test
+    void testExport_RestaurantNotFound_FailsBeforeStreaming() {
+        when(referenceDataCache.getRestaurant(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                orderExportService.export(99L, null, null, OrderExportService.Format.NDJSON));
+
+        verifyNoInteractions(orderRepository, transactionManager);
+    }
+
+    @Test
+    void testExport_ClientGone_ClosesCursorAndRollsBack() {
+        restaurantExists(1L);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(orderRepository.streamForExport(eq(1L), any(), any()))
+                .thenReturn(Stream.of(summary(10L, "PLACED")).onClose(() -> closed.set(true)));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(RuntimeException.class, () ->
+                orderExportService.export(1L, null, null, OrderExportService.Format.NDJSON).writeTo(broken));
+
+        assertTrue(closed.get());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void testFormatOf_DefaultsToNdjsonOnlyWhenAbsent() {
+        assertEquals(OrderExportService.Format.CSV, OrderExportService.Format.of("CSV"));
+        assertEquals(OrderExportService.Format.NDJSON, OrderExportService.Format.of("ndjson"));
+        assertEquals(OrderExportService.Format.NDJSON, OrderExportService.Format.of(null));
+        assertEquals(OrderExportService.Format.NDJSON, OrderExportService.Format.of(""));
+        assertThrows(InvalidExportFormatException.class, () -> OrderExportService.Format.of("xlsx"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIdSequenceSyncTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderIdSequenceSync sequenceSync;
+
+    @BeforeEach
+    void setUp() {
+        sequenceSync = new OrderIdSequenceSync(orderRepository, transactionManager);
+    }
+
+    @Test
+    void testSync_BehindSequenceIsMovedUnderTheLock() {
+        when(orderRepository.advanceOrdersSequence()).thenReturn(1L);
+
+        assertTrue(sequenceSync.sync());
+
+        InOrder order = inOrder(orderRepository);
+        order.verify(orderRepository).lockOrdersSequence();
+        order.verify(orderRepository).advanceOrdersSequence();
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testSync_AlignedSequenceIsLeftAlone() {
+        when(orderRepository.advanceOrdersSequence()).thenReturn(0L);
+
+        assertFalse(sequenceSync.sync());
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderLinesBackfillTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderLinesBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new OrderLinesBackfill(orderRepository, transactionManager, 100);
+    }
+
+    @Test
+    void testBackfill_BatchesUntilNothingIsLeft() {
+        when(orderRepository.legacyOrderItemsTableExists()).thenReturn(true);
+        when(orderRepository.backfillOrderLines(100)).thenReturn(250, 40, 0);
+
+        assertEquals(290, backfill.backfill());
+
+        InOrder order = inOrder(orderRepository);
+        order.verify(orderRepository).lockOrderLinesBackfill();
+        order.verify(orderRepository).backfillOrderLines(100);
+        verify(orderRepository, times(3)).backfillOrderLines(100);
+        verify(transactionManager, times(4)).commit(any());
+    }
+
+    @Test
+    void testBackfill_RemovesCopiedRowsSoBackfilledOrdersCanBeDeleted() {
+        when(orderRepository.legacyOrderItemsTableExists()).thenReturn(true);
+        when(orderRepository.backfillOrderLines(100)).thenReturn(3, 0);
+        when(orderRepository.legacyOrderItemsRemain()).thenReturn(false);
+
+        backfill.backfill();
+
+        // the copied rows go in the batch that copied them, then the empty table and its foreign keys
+        InOrder order = inOrder(orderRepository);
+        order.verify(orderRepository).backfillOrderLines(100);
+        order.verify(orderRepository).deleteBackfilledOrderItems();
+        order.verify(orderRepository).dropLegacyOrderItemsTable();
+    }
+
+    @Test
+    void testBackfill_KeepsTableWithRowsThatCouldNotBeCopied() {
+        when(orderRepository.legacyOrderItemsTableExists()).thenReturn(true);
+        when(orderRepository.backfillOrderLines(100)).thenReturn(0);
+        when(orderRepository.legacyOrderItemsRemain()).thenReturn(true);
+
+        backfill.backfill();
+
+        verify(orderRepository, never()).dropLegacyOrderItemsTable();
+    }
+
+    @Test
+    void testBackfill_NoLegacyTable_NothingToDo() {
+        when(orderRepository.legacyOrderItemsTableExists()).thenReturn(false);
+
+        assertEquals(0, backfill.backfill());
+
+        verify(orderRepository, never()).backfillOrderLines(anyInt());
+        verifyNoInteractions(transactionManager);
+    }
+}
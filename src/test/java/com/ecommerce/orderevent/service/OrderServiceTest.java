@@ -1,34 +1,45 @@
 package com.ecommerce.orderevent.service;
 
+import com.ecommerce.orderevent.cache.OrderStatusCache;
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
+import com.ecommerce.orderevent.dtos.BatchOrderResultDto;
 import com.ecommerce.orderevent.dtos.OrderRequestDto;
 import com.ecommerce.orderevent.dtos.OrderResponseDto;
+import com.ecommerce.orderevent.dtos.OrderSummaryDto;
+import com.ecommerce.orderevent.dtos.OrderLineDto;
+import com.ecommerce.orderevent.dtos.OrderPageDto;
 import com.ecommerce.orderevent.entity.MenuItem;
 import com.ecommerce.orderevent.entity.Order;
+import com.ecommerce.orderevent.entity.OrderLine;
 import com.ecommerce.orderevent.entity.Restaurant;
 import com.ecommerce.orderevent.entity.User;
+import com.ecommerce.orderevent.exception.InvalidCursorException;
 import com.ecommerce.orderevent.exception.ResourceNotFoundException;
 import com.ecommerce.orderevent.models.OrderEvent;
 import com.ecommerce.orderevent.repository.MenuItemRepository;
+import com.ecommerce.orderevent.repository.OrderDetailRow;
 import com.ecommerce.orderevent.repository.OrderRepository;
+import com.ecommerce.orderevent.repository.OrderStatusTransition;
 import com.ecommerce.orderevent.repository.RestaurantRepository;
 import com.ecommerce.orderevent.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import static com.ecommerce.orderevent.constants.ErrorMessages.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 
 @ExtendWith(MockitoExtension.class)
 class OrderServiceTest {
-    @InjectMocks
     private OrderService orderService;
     @Mock
     private OrderRepository orderRepository;
@@ -39,7 +50,9 @@ class OrderServiceTest {
     @Mock
     private MenuItemRepository menuItemRepository;
     @Mock
-    private KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private OutboxService outboxService;
+    @Mock
+    private OrderStatusCache orderStatusCache;
 
     private User user;
     private Restaurant restaurant;
@@ -47,6 +60,12 @@ class OrderServiceTest {
 
     @BeforeEach
     void setUp(){
+        // real cache over the mocked repositories, so cache hits and misses are visible as repository calls
+        ReferenceDataCache referenceDataCache =
+                new ReferenceDataCache(userRepository, restaurantRepository, menuItemRepository, 1000, 60);
+        orderService = new OrderService(orderRepository, userRepository, restaurantRepository,
+                menuItemRepository, outboxService, referenceDataCache, orderStatusCache, new ObjectMapper());
+
         user = new User();
         user.setId(1L);
         user.setName("Test User");
@@ -72,19 +91,17 @@ class OrderServiceTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
-        when(menuItemRepository.findAllById(List.of(1L))).thenReturn(List.of(menuItem));
+        when(menuItemRepository.findAllById(Set.of(1L))).thenReturn(List.of(menuItem));
 
         Order savedOrder = new Order();
         savedOrder.setId(100L);
         savedOrder.setUser(user);
         savedOrder.setRestaurant(restaurant);
-        savedOrder.setItems(List.of(menuItem));
+        savedOrder.setItems(List.of(OrderLine.of(menuItem)));
         savedOrder.setTotalPrice(10.0);
         savedOrder.setStatus("PLACED");
 
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(kafkaTemplate.send(anyString(), any(OrderEvent.class)))
-                .thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         OrderResponseDto result = orderService.placeOrder(requestDto);
@@ -101,13 +118,91 @@ class OrderServiceTest {
         // Verify repository and kafka calls
         verify(userRepository).findById(1L);
         verify(restaurantRepository).findById(1L);
-        verify(menuItemRepository).findAllById(List.of(1L));
-        verify(userRepository).save(user);
+        verify(menuItemRepository).findAllById(Set.of(1L));
+        verify(userRepository, never()).save(any(User.class));
         verify(orderRepository).save(any(Order.class));
-        verify(kafkaTemplate).send(eq("order-events"), any(OrderEvent.class));
+        verify(outboxService).enqueue(any(OrderEvent.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPlaceOrder_DoesNotTouchOrderHistory() {
+        // Placement cost must not depend on history size: the orders collection is never read or written,
+        // whether the user has 1 order or 50,000.
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
+        when(menuItemRepository.findAllById(Set.of(1L))).thenReturn(List.of(menuItem));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int historySize : new int[]{1, 50_000}) {
+            List<Order> history = mock(List.class);
+            lenient().when(history.size()).thenReturn(historySize);
+            user.setOrders(history);
+
+            OrderRequestDto requestDto = new OrderRequestDto();
+            requestDto.setUserId(1L);
+            requestDto.setRestaurantId(1L);
+            requestDto.setMenuItemIds(List.of(1L));
+
+            orderService.placeOrder(requestDto);
+
+            verifyNoInteractions(history);
+        }
+        verify(userRepository, never()).save(any(User.class));
+        verify(orderRepository, times(2)).save(any(Order.class));
     }
 
 
+    @Test
+    void testPlaceOrder_WarmCacheNeedsNoReads() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
+        when(menuItemRepository.findAllById(Set.of(1L))).thenReturn(List.of(menuItem));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderRequestDto requestDto = new OrderRequestDto();
+        requestDto.setUserId(1L);
+        requestDto.setRestaurantId(1L);
+        requestDto.setMenuItemIds(List.of(1L, 1L));
+
+        orderService.placeOrder(requestDto);
+        OrderResponseDto second = orderService.placeOrder(requestDto);
+
+        assertEquals(10.0, second.getTotalPrice());
+        assertEquals("Pizza", second.getItems().get(0).getName());
+        // the second placement is served entirely from the reference cache
+        verify(userRepository, times(1)).findById(1L);
+        verify(restaurantRepository, times(1)).findById(1L);
+        verify(menuItemRepository, times(1)).findAllById(anyCollection());
+        verify(orderRepository, times(2)).save(any(Order.class));
+    }
+
+    @Test
+    void testPlaceOrder_SnapshotsLinesIntoOrderAndEvent() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
+        when(menuItemRepository.findAllById(Set.of(1L))).thenReturn(List.of(menuItem));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderRequestDto requestDto = new OrderRequestDto();
+        requestDto.setUserId(1L);
+        requestDto.setRestaurantId(1L);
+        requestDto.setMenuItemIds(List.of(1L));
+        orderService.placeOrder(requestDto);
+
+        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository).save(orderCaptor.capture());
+        assertEquals(List.of(new OrderLine(1L, "Pizza", 10.0, 1)), orderCaptor.getValue().getItems());
+
+        ArgumentCaptor<OrderEvent> eventCaptor = ArgumentCaptor.forClass(OrderEvent.class);
+        verify(outboxService).enqueue(eventCaptor.capture());
+        assertEquals(List.of(new OrderLineDto(1L, "Pizza", 10.0, 1)), eventCaptor.getValue().getLines());
+        assertEquals(10.0, eventCaptor.getValue().getTotalPrice());
+        // a later price change must not reach the stored order
+        menuItem.setPrice(99.0);
+        assertEquals(10.0, orderCaptor.getValue().getItems().get(0).getUnitPrice());
+    }
+
     @Test
     void testPlaceOrder_UserNotFound() {
         OrderRequestDto requestDto = new OrderRequestDto();
@@ -148,7 +243,7 @@ class OrderServiceTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
-        when(menuItemRepository.findAllById(List.of(1L))).thenReturn(Collections.emptyList());
+        when(menuItemRepository.findAllById(Set.of(1L))).thenReturn(Collections.emptyList());
 
         Exception ex = assertThrows(ResourceNotFoundException.class,
                 () -> orderService.placeOrder(requestDto));
@@ -157,43 +252,154 @@ class OrderServiceTest {
     }
 
 
+    @Test
+    void testPlaceOrders_BatchResolvesReferencesOnceAndReportsPerOrder() {
+        OrderRequestDto valid = new OrderRequestDto();
+        valid.setUserId(1L);
+        valid.setRestaurantId(1L);
+        valid.setMenuItemIds(List.of(1L));
+
+        OrderRequestDto unknownUser = new OrderRequestDto();
+        unknownUser.setUserId(2L);
+        unknownUser.setRestaurantId(1L);
+        unknownUser.setMenuItemIds(List.of(1L));
+
+        OrderRequestDto missingFields = new OrderRequestDto();
+
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(user));
+        when(restaurantRepository.findAllById(anyCollection())).thenReturn(List.of(restaurant));
+        when(menuItemRepository.findAllById(anyCollection())).thenReturn(List.of(menuItem));
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.get(0).setId(700L);
+            return orders;
+        });
+
+        List<BatchOrderResultDto> results = orderService.placeOrders(List.of(valid, unknownUser, missingFields));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(700L, results.get(0).getOrder().getId());
+        assertEquals(10.0, results.get(0).getOrder().getTotalPrice());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(USER_NOT_FOUND + 2L, results.get(1).getError());
+        assertFalse(results.get(2).isSuccess());
+        assertEquals(INVALID_ORDER_REQUEST, results.get(2).getError());
+
+        verify(userRepository, times(1)).findAllById(anyCollection());
+        verify(restaurantRepository, times(1)).findAllById(anyCollection());
+        verify(menuItemRepository, times(1)).findAllById(anyCollection());
+        verify(orderRepository, times(1)).saveAll(argThat(orders -> ((List<Order>) orders).size() == 1));
+        verify(userRepository, never()).save(any(User.class));
+        verify(outboxService, times(1)).enqueueAll(argThat(events -> events.size() == 1));
+    }
+
+    @Test
+    void testPlaceOrders_NothingValidSkipsWrites() {
+        OrderRequestDto request = new OrderRequestDto();
+        request.setUserId(1L);
+        request.setRestaurantId(1L);
+        request.setMenuItemIds(List.of(99L));
+
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(user));
+        when(restaurantRepository.findAllById(anyCollection())).thenReturn(List.of(restaurant));
+        when(menuItemRepository.findAllById(anyCollection())).thenReturn(Collections.emptyList());
+
+        List<BatchOrderResultDto> results = orderService.placeOrders(List.of(request));
+
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(0).getError().contains(MENU_ITEM_NOT_FOUND));
+        verify(orderRepository, never()).saveAll(anyList());
+        verify(outboxService, never()).enqueueAll(anyList());
+    }
+
+    private static OrderDetailRow detailRow(Long menuItemId, String itemName, Double unitPrice) {
+        return new OrderDetailRow() {
+            public Long getId() { return 300L; }
+            public LocalDateTime getOrderDate() { return LocalDateTime.of(2025, 1, 1, 12, 0); }
+            public String getStatus() { return "PLACED"; }
+            public Double getTotalPrice() { return 25.0; }
+            public Long getUserId() { return 1L; }
+            public String getUserName() { return "Test User"; }
+            public String getUserEmail() { return "John@example.com"; }
+            public Long getRestaurantId() { return 1L; }
+            public String getRestaurantName() { return "Test Restaurant"; }
+            public String getRestaurantAddress() { return null; }
+            public String getRestaurantContact() { return null; }
+            public Long getMenuItemId() { return menuItemId; }
+            public String getItemName() { return itemName; }
+            public Double getUnitPrice() { return unitPrice; }
+            public Integer getQuantity() { return menuItemId == null ? null : 1; }
+        };
+    }
+
     @Test
     void testGetOrderDetails_Success() {
-        Order order = new Order();
-        order.setId(300L);
-        order.setStatus("PLACED");
+        when(orderRepository.findDetailRowsById(300L))
+                .thenReturn(List.of(detailRow(1L, "Pizza", 10.0), detailRow(2L, "Pasta", 15.0)));
 
-        when(orderRepository.findById(300L)).thenReturn(Optional.of(order));
-        Order result = orderService.getOrderDetails(300L);
+        OrderResponseDto result = orderService.getOrderDetails(300L);
 
         assertNotNull(result);
         assertEquals(300L, result.getId());
         assertEquals("PLACED", result.getStatus());
-        verify(orderRepository, times(1)).findById(300L);
+        assertEquals("Test User", result.getUser().getName());
+        assertEquals("Test Restaurant", result.getRestaurant().getName());
+        assertNull(result.getRestaurant().getMenuItems()); // the restaurant's menu is not part of an order
+        assertEquals(List.of(new OrderLineDto(1L, "Pizza", 10.0, 1), new OrderLineDto(2L, "Pasta", 15.0, 1)),
+                result.getItems());
+        verify(orderRepository, times(1)).findDetailRowsById(300L);
+        verify(orderRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetOrderDetails_OrderWithoutLines() {
+        when(orderRepository.findDetailRowsById(300L)).thenReturn(List.of(detailRow(null, null, null)));
+
+        OrderResponseDto result = orderService.getOrderDetails(300L);
+
+        assertTrue(result.getItems().isEmpty());
     }
 
     @Test
     void testGetOrderDetails_NotFound() {
-        when(orderRepository.findById(300L)).thenReturn(Optional.empty());
+        when(orderRepository.findDetailRowsById(300L)).thenReturn(List.of());
         Exception ex = assertThrows(ResourceNotFoundException.class,
                 () -> orderService.getOrderDetails(300L));
         assertEquals(ORDER_ITEM_NOT_FOUND + 300L, ex.getMessage());
-        verify(orderRepository, times(1)).findById(300L);
+        verify(orderRepository, times(1)).findDetailRowsById(300L);
     }
 
     @Test
-    void testGetOrdersByRestaurant_Success() {
-        Order order = new Order();
-        order.setId(400L);
-        order.setRestaurant(restaurant);
+    void testGetOrdersByRestaurant_FullOrdersWithLines() {
+        when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
+        Order stored = new Order();
+        stored.setId(400L);
+        stored.setUser(user);
+        stored.setRestaurant(restaurant);
+        stored.setStatus("PLACED");
+        stored.setItems(List.of(new OrderLine(10L, "Pizza", 250.0, 1)));
+        when(orderRepository.findForResponseByRestaurantIdOrderByOrderDateDescIdDesc(1L)).thenReturn(List.of(stored));
+
+        List<OrderResponseDto> result = orderService.getOrdersByRestaurant(1L);
 
+        assertEquals(1, result.size());
+        assertEquals(400L, result.get(0).getId());
+        assertEquals("Pizza", result.get(0).getItems().get(0).getName());
+        verify(restaurantRepository, times(1)).findById(1L);
+        verify(orderRepository, never()).findSummariesByRestaurantId(anyLong());
+    }
+
+    @Test
+    void testGetOrderSummariesByRestaurant_Success() {
         when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
-        when(orderRepository.findByRestaurantId(1L)).thenReturn(List.of(order));
-        List<Order> result = orderService.getOrdersByRestaurant(1L);
+        when(orderRepository.findSummariesByRestaurantId(1L))
+                .thenReturn(List.of(new OrderSummaryDto(400L, null, "PLACED", 10.0, 1L, 1L)));
+        List<OrderSummaryDto> result = orderService.getOrderSummariesByRestaurant(1L);
         assertEquals(1, result.size());
         assertEquals(400L, result.get(0).getId());
         verify(restaurantRepository, times(1)).findById(1L);
-        verify(orderRepository, times(1)).findByRestaurantId(1L);
+        verify(orderRepository, times(1)).findSummariesByRestaurantId(1L);
     }
 
     @Test
@@ -202,7 +408,100 @@ class OrderServiceTest {
         Exception ex = assertThrows(ResourceNotFoundException.class,
                 () -> orderService.getOrdersByRestaurant(1L));
         assertEquals(RESTAURANT_NOT_FOUND + 1L, ex.getMessage());
-        verify(orderRepository, never()).findByRestaurantId(anyLong());
+        verify(orderRepository, never()).findForResponseByRestaurantIdOrderByOrderDateDescIdDesc(anyLong());
+    }
+
+    @Test
+    void testGetOrdersByUser_FullOrdersNewestFirst() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        Order newer = new Order();
+        newer.setId(102L);
+        newer.setItems(List.of());
+        Order older = new Order();
+        older.setId(101L);
+        older.setItems(List.of());
+        when(orderRepository.findForResponseByUserIdOrderByOrderDateDescIdDesc(1L)).thenReturn(List.of(newer, older));
+
+        List<OrderResponseDto> result = orderService.getOrdersByUser(1L);
+
+        assertEquals(List.of(102L, 101L), result.stream().map(OrderResponseDto::getId).toList());
+    }
+
+    @Test
+    void testGetOrderSummariesByUser_Success() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(orderRepository.findSummariesByUserId(1L)).thenReturn(List.of(
+                new OrderSummaryDto(102L, null, "PLACED", 10.0, 1L, 1L),
+                new OrderSummaryDto(101L, null, "ACCEPTED", 20.0, 1L, 1L)));
+
+        List<OrderSummaryDto> result = orderService.getOrderSummariesByUser(1L);
+
+        assertEquals(List.of(102L, 101L), result.stream().map(OrderSummaryDto::getId).toList());
+    }
+
+    @Test
+    void testGetOrdersByUser_UserNotFound() {
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> orderService.getOrderSummariesByUser(99L));
+        assertEquals(USER_NOT_FOUND + 99L, ex.getMessage());
+        verify(orderRepository, never()).findSummariesByUserId(anyLong());
+    }
+
+    private static OrderSummaryDto summary(long id, LocalDateTime orderDate) {
+        return new OrderSummaryDto(id, orderDate, "PLACED", 10.0, 1L, 1L);
+    }
+
+    @Test
+    void testGetOrdersByRestaurantPage_FollowsCursor() {
+        LocalDateTime noon = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
+        // size + 1 rows come back when there is another page
+        when(orderRepository.findFirstPageByRestaurantId(1L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(summary(9L, noon), summary(8L, noon), summary(7L, noon.minusHours(1))));
+
+        OrderPageDto first = orderService.getOrdersByRestaurant(1L, null, 2);
+
+        assertEquals(List.of(9L, 8L), first.getOrders().stream().map(OrderSummaryDto::getId).toList());
+        assertNotNull(first.getNextCursor());
+
+        when(orderRepository.findPageByRestaurantIdAfter(1L, noon, 8L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(summary(7L, noon.minusHours(1))));
+
+        OrderPageDto second = orderService.getOrdersByRestaurant(1L, first.getNextCursor(), 2);
+
+        assertEquals(List.of(7L), second.getOrders().stream().map(OrderSummaryDto::getId).toList());
+        assertNull(second.getNextCursor());
+        verify(orderRepository, never()).findSummariesByRestaurantId(anyLong());
+    }
+
+    @Test
+    void testGetOrdersByUserPage_ClampsPageSize() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(orderRepository.findFirstPageByUserId(eq(1L), any(Pageable.class))).thenReturn(List.of());
+
+        orderService.getOrdersByUser(1L, null, 100_000);
+        orderService.getOrdersByUser(1L, null, 0);
+
+        verify(orderRepository).findFirstPageByUserId(1L, PageRequest.of(0, OrderService.MAX_PAGE_SIZE + 1));
+        verify(orderRepository).findFirstPageByUserId(1L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void testGetOrdersByRestaurantPage_RejectsInvalidCursor() {
+        when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
+
+        assertThrows(InvalidCursorException.class,
+                () -> orderService.getOrdersByRestaurant(1L, "not-a-cursor", 20));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void testGetOrdersByUserPage_UserNotFound() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> orderService.getOrdersByUser(1L, null, 20));
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -211,20 +510,23 @@ class OrderServiceTest {
         order.setId(500L);
         order.setStatus("PLACED");
 
-        when(orderRepository.findById(500L)).thenReturn(Optional.of(order));
+        when(orderRepository.findForResponseById(500L)).thenReturn(Optional.of(order));
         when(orderRepository.save(order)).thenReturn(order);
 
         OrderResponseDto result = orderService.updateOrderStatus(500L, "DELIVERED");
 
         assertEquals("DELIVERED", result.getStatus());
         assertEquals(500L, result.getId());
-        verify(orderRepository, times(1)).findById(500L);
+        verify(orderRepository, times(1)).findForResponseById(500L);
         verify(orderRepository, times(1)).save(order);
+        // the new status is written, so a concurrent read's putIfAbsent of the old one is a no-op
+        verify(orderStatusCache, times(1)).put(500L, "DELIVERED");
+        verify(orderStatusCache, never()).evict(anyLong());
     }
 
     @Test
     void testUpdateOrderStatus_NotFound() {
-        when(orderRepository.findById(500L)).thenReturn(Optional.empty());
+        when(orderRepository.findForResponseById(500L)).thenReturn(Optional.empty());
 
         Exception ex = assertThrows(ResourceNotFoundException.class,
                 () -> orderService.updateOrderStatus(500L, "DELIVERED"));
@@ -236,30 +538,38 @@ class OrderServiceTest {
     void testGetOrderStatus_OrderFound() {
         // Arrange
         Long orderId = 1L;
-        Order order = new Order();
-        order.setId(orderId);
-        order.setStatus("PLACED");
-
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderStatusCache.get(orderId)).thenReturn(Optional.empty());
+        when(orderRepository.findStatusById(orderId)).thenReturn(Optional.of("PLACED"));
 
         // Act
         String status = orderService.getOrderStatus(orderId);
         // Assert
         assertEquals("PLACED", status);
-        verify(orderRepository, times(1)).findById(orderId);
+        verify(orderRepository, times(1)).findStatusById(orderId);
+        verify(orderRepository, never()).findById(anyLong());
+        verify(orderStatusCache).putIfAbsent(orderId, "PLACED");
+    }
+
+    @Test
+    void testGetOrderStatus_CacheHitSkipsDatabase() {
+        when(orderStatusCache.get(1L)).thenReturn(Optional.of("ACCEPTED"));
+
+        assertEquals("ACCEPTED", orderService.getOrderStatus(1L));
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
     void testGetOrderStatus_OrderNotFound() {
         Long orderId = 99L;
-        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+        when(orderStatusCache.get(orderId)).thenReturn(Optional.empty());
+        when(orderRepository.findStatusById(orderId)).thenReturn(Optional.empty());
 
         ResourceNotFoundException exception = assertThrows(
                 ResourceNotFoundException.class,
                 () -> orderService.getOrderStatus(orderId)
         );
         assertEquals(ORDER_ITEM_NOT_FOUND + orderId, exception.getMessage());
-        verify(orderRepository, times(1)).findById(orderId);
+        verify(orderRepository, times(1)).findStatusById(orderId);
     }
 
 
@@ -271,56 +581,104 @@ class OrderServiceTest {
         orderService.cancelOrder(orderId);
         verify(orderRepository, times(1)).existsById(orderId);
         verify(orderRepository, times(1)).deleteById(orderId);
+        verify(orderStatusCache, times(1)).evict(orderId);
+    }
+
+    private static OrderStatusTransition transition(Long orderId, Long userId, Long restaurantId, Double totalPrice, String lines) {
+        return new OrderStatusTransition() {
+            public Long getOrderId() { return orderId; }
+            public Long getUserId() { return userId; }
+            public Long getRestaurantId() { return restaurantId; }
+            public Double getTotalPrice() { return totalPrice; }
+            public String getLines() { return lines; }
+        };
     }
 
     @Test
     void testUpdateOrderStatusForRestaurant_Success() {
-        // Arrange
-        Order order = new Order();
-        order.setId(500L);
-        order.setStatus("PLACED");
-        order.setUser(user);
-        order.setRestaurant(restaurant);
-        order.setItems(List.of(menuItem));
-
-        when(orderRepository.findById(500L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(order)).thenReturn(order);
-        when(kafkaTemplate.send(anyString(), any(OrderEvent.class)))
-                .thenReturn(CompletableFuture.completedFuture(null));
+        when(orderRepository.transitionStatus(500L, Set.of("PLACED"), "ACCEPTED"))
+                .thenReturn(Optional.of(transition(500L, 1L, 1L, 25.0,
+                        "[{\"menuItemId\": 1, \"name\": \"Pizza\", \"unitPrice\": 10.0, \"quantity\": 1},"
+                                + " {\"menuItemId\": 2, \"name\": \"Pasta\", \"unitPrice\": 15.0, \"quantity\": 1}]")));
 
-        // Act
         String result = orderService.updateOrderStatusForRestaurant(500L, "ACCEPTED");
-        // Assert
+
         assertEquals("ACCEPTED", result);
-        assertEquals("ACCEPTED", order.getStatus()); // order object updated
-        verify(orderRepository, times(1)).findById(500L);
-        verify(orderRepository, times(1)).save(order);
-        verify(kafkaTemplate, times(1)).send(eq("order-events"), any(OrderEvent.class));
+        ArgumentCaptor<OrderEvent> captor = ArgumentCaptor.forClass(OrderEvent.class);
+        verify(outboxService, times(1)).enqueue(captor.capture());
+        OrderEvent event = captor.getValue();
+        assertNotNull(event.getOccurredAt());
+        event.setOccurredAt(null);
+        assertEquals(new OrderEvent(500L, 1L, 1L, List.of(1L, 2L), "ACCEPTED",
+                List.of(new OrderLineDto(1L, "Pizza", 10.0, 1), new OrderLineDto(2L, "Pasta", 15.0, 1)), 25.0),
+                event);
+        // the event comes from the UPDATE itself: no load, no save, no lazy items
+        verify(orderRepository, never()).findById(anyLong());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).existsById(anyLong());
     }
 
     @Test
     void testUpdateOrderStatusForRestaurant_OrderNotFound() {
-        when(orderRepository.findById(500L)).thenReturn(Optional.empty());
+        when(orderRepository.transitionStatus(500L, Set.of("PLACED"), "ACCEPTED")).thenReturn(Optional.empty());
+        when(orderRepository.existsById(500L)).thenReturn(false);
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
                 () -> orderService.updateOrderStatusForRestaurant(500L, "ACCEPTED"));
         assertEquals(ORDER_ITEM_NOT_FOUND + 500L, ex.getMessage());
-        verify(orderRepository, never()).save(any(Order.class));
-        verify(kafkaTemplate, never()).send(anyString(), any(OrderEvent.class));
+        verify(outboxService, never()).enqueue(any(OrderEvent.class));
     }
 
     @Test
     void testUpdateOrderStatusForRestaurant_InvalidState() {
-        Order order = new Order();
-        order.setId(501L);
-        order.setStatus("DELIVERED"); // Not "PLACED"
-        when(orderRepository.findById(501L)).thenReturn(Optional.of(order));
+        // already accepted, rejected or moved on by a concurrent click
+        when(orderRepository.transitionStatus(501L, Set.of("PLACED"), "ACCEPTED")).thenReturn(Optional.empty());
+        when(orderRepository.existsById(501L)).thenReturn(true);
 
         IllegalStateException ex = assertThrows(IllegalStateException.class,
                 () -> orderService.updateOrderStatusForRestaurant(501L, "ACCEPTED"));
         assertEquals("Order cannot be modified at this stage.", ex.getMessage());
-        verify(orderRepository, never()).save(any(Order.class));
-        verify(kafkaTemplate, never()).send(anyString(), any(OrderEvent.class));
+        verify(outboxService, never()).enqueue(any(OrderEvent.class));
+    }
+
+    @Test
+    void testTransitionStatus_ReportsLostRace() {
+        when(orderRepository.transitionStatus(502L, Set.of("PLACED"), "REJECTED"))
+                .thenReturn(Optional.of(transition(502L, 1L, 1L, 10.0, null)))
+                .thenReturn(Optional.empty());
+
+        assertTrue(orderService.transitionStatus(502L, "PLACED", "REJECTED"));
+        assertFalse(orderService.transitionStatus(502L, "PLACED", "REJECTED"));
+        verify(outboxService, times(1)).enqueue(any(OrderEvent.class));
+    }
+
+    @Test
+    void testTransitionStatus_StepNotInTheTable() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.transitionStatus(500L, "PLACED", "PLACED"));
+        assertThrows(IllegalArgumentException.class, () -> orderService.transitionStatus(500L, "PLACED", "PAYMENT_SUCCESS"));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void testUpdateOrderStatusForRestaurant_CannotMarkPayment() {
+        // ACCEPTED -> PAYMENT_SUCCESS is the payment flow's step, not the restaurant's
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.updateOrderStatusForRestaurant(503L, "PAYMENT_SUCCESS"));
+
+        verify(orderRepository, never()).transitionStatus(anyLong(), any(), anyString());
+        verify(outboxService, never()).enqueue(any(OrderEvent.class));
+    }
+
+    @Test
+    void testUpdateOrderStatusForRestaurant_AcceptedOrderIsNotRejectedAfterwards() {
+        // only a PLACED row matches the UPDATE, so an accepted one is left as it is
+        when(orderRepository.transitionStatus(504L, Set.of("PLACED"), "REJECTED")).thenReturn(Optional.empty());
+        when(orderRepository.existsById(504L)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> orderService.updateOrderStatusForRestaurant(504L, "REJECTED"));
+
+        verify(orderRepository, times(1)).transitionStatus(504L, Set.of("PLACED"), "REJECTED");
+        verify(outboxService, never()).enqueue(any(OrderEvent.class));
     }
 
 }
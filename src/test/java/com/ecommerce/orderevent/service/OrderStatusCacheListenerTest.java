@@ -0,0 +1,29 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.cache.OrderStatusCache;
+import com.ecommerce.orderevent.models.OrderEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class OrderStatusCacheListenerTest {
+
+    private OrderStatusCache orderStatusCache;
+    private OrderStatusCacheListener orderStatusCacheListener;
+
+    @BeforeEach
+    void setUp() {
+        orderStatusCache = mock(OrderStatusCache.class);
+        orderStatusCacheListener = new OrderStatusCacheListener(orderStatusCache);
+    }
+
+    @Test
+    void testConsume_WritesPublishedStatus() {
+        orderStatusCacheListener.consume(new OrderEvent(10L, 31L, 4L, List.of(6L), "ACCEPTED"));
+
+        verify(orderStatusCache, times(1)).put(10L, "ACCEPTED");
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.entity.OutboxEvent;
+import com.ecommerce.orderevent.models.OrderEvent;
+import com.ecommerce.orderevent.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private OrderEventPublisher orderEventPublisher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxEventRepository, orderEventPublisher, objectMapper, meterRegistry, 100, 1000);
+    }
+
+    private OutboxEvent outboxEvent(long id, String status) throws Exception {
+        return outboxEvent(id, id, status);
+    }
+
+    private OutboxEvent outboxEvent(long id, long orderId, String status) throws Exception {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setId(id);
+        outboxEvent.setTopic("order-events");
+        outboxEvent.setAggregateId(orderId);
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        outboxEvent.setPayload(objectMapper.writeValueAsString(new OrderEvent(orderId, 1L, 2L, List.of(3L), status)));
+        return outboxEvent;
+    }
+
+    private static OrderEvent withStatus(String status) {
+        return argThat(event -> event != null && event.getStatus().equals(status));
+    }
+
+    @Test
+    void testRelay_DeletesAcknowledgedEvents() throws Exception {
+        OutboxEvent first = outboxEvent(1L, "PLACED");
+        OutboxEvent second = outboxEvent(2L, "ACCEPTED");
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of(first, second));
+        when(orderEventPublisher.publish(eq("order-events"), any(OrderEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxRelay.relay();
+
+        verify(orderEventPublisher, times(2)).publish(eq("order-events"), any(OrderEvent.class));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(first, second));
+        assertEquals(2.0, meterRegistry.get("outbox.relay.published").counter().count());
+    }
+
+    @Test
+    void testRelay_FailedSendOnlyHoldsBackItsOwnOrder() throws Exception {
+        OutboxEvent first = outboxEvent(1L, "PLACED");
+        OutboxEvent second = outboxEvent(2L, "PLACED");
+        OutboxEvent third = outboxEvent(3L, "PLACED");
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of(first, second, third));
+        when(orderEventPublisher.publish(eq("order-events"), any(OrderEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(outboxEventRepository.count()).thenReturn(2L);
+        when(outboxEventRepository.findOldestCreatedAt()).thenReturn(LocalDateTime.now().minusSeconds(5));
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository).deleteAllInBatch(List.of(first, third));
+        assertEquals(2.0, meterRegistry.get("outbox.depth").gauge().value());
+        assertTrue(meterRegistry.get("outbox.relay.lag").gauge().value() >= 5.0);
+    }
+
+    @Test
+    void testRelay_SameOrder_NextEventWaitsForTheAck() throws Exception {
+        OutboxEvent placed = outboxEvent(1L, 7L, "PLACED");
+        OutboxEvent other = outboxEvent(2L, 8L, "PLACED");
+        OutboxEvent accepted = outboxEvent(3L, 7L, "ACCEPTED");
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of(placed, other, accepted));
+        CompletableFuture<Object> placedAck = new CompletableFuture<>();
+        doReturn(placedAck).when(orderEventPublisher).publish(eq("order-events"), withStatus("PLACED"));
+        doAnswer(invocation -> {
+            // the first round is fully sent before this order's next event goes out
+            assertTrue(placedAck.isDone());
+            return CompletableFuture.completedFuture(null);
+        }).when(orderEventPublisher).publish(eq("order-events"), withStatus("ACCEPTED"));
+        placedAck.complete(null);
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository).deleteAllInBatch(List.of(placed, other, accepted));
+    }
+
+    @Test
+    void testRelay_SameOrder_FailedEventHoldsBackTheLaterOnes() throws Exception {
+        OutboxEvent placed = outboxEvent(1L, 7L, "PLACED");
+        OutboxEvent accepted = outboxEvent(2L, 7L, "ACCEPTED");
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of(placed, accepted));
+        doReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")))
+                .when(orderEventPublisher).publish(eq("order-events"), withStatus("PLACED"));
+
+        outboxRelay.relay();
+
+        verify(orderEventPublisher, never()).publish(eq("order-events"), withStatus("ACCEPTED"));
+        verify(outboxEventRepository).deleteAllInBatch(List.of());
+    }
+
+    @Test
+    void testRelay_EmptyOutbox() {
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of());
+
+        outboxRelay.relay();
+
+        verifyNoInteractions(orderEventPublisher);
+        verify(outboxEventRepository, never()).deleteAllInBatch(anyList());
+        assertEquals(0.0, meterRegistry.get("outbox.depth").gauge().value());
+    }
+}
@@ -1,22 +1,12 @@
 package com.ecommerce.orderevent.service;
 
-import com.ecommerce.orderevent.entity.MenuItem;
-import com.ecommerce.orderevent.entity.Order;
-import com.ecommerce.orderevent.entity.Restaurant;
-import com.ecommerce.orderevent.entity.User;
 import com.ecommerce.orderevent.exception.ResourceNotFoundException;
-import com.ecommerce.orderevent.models.OrderEvent;
 import com.ecommerce.orderevent.repository.OrderRepository;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.List;
-import java.util.Optional;
-
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -27,92 +17,47 @@ class PaymentServiceTest {
     private OrderRepository orderRepository;
 
     @Mock
-    private KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private OrderService orderService;
 
     @InjectMocks
     private PaymentService paymentService;
 
-    private Order acceptedOrder;
-    private Order pendingOrder;
-    private User user;
-    private Restaurant restaurant;
-    private MenuItem item1;
-    private MenuItem item2;
-
-    @BeforeEach
-    void setUp() {
-        user = new User();
-        user.setId(1L);
-
-        restaurant = new Restaurant();
-        restaurant.setId(10L);
-
-        item1 = new MenuItem();
-        item1.setId(100L);
-
-        item2 = new MenuItem();
-        item2.setId(101L);
-
-        // Accepted order
-        acceptedOrder = new Order();
-        acceptedOrder.setId(999L);
-        acceptedOrder.setStatus("ACCEPTED");
-        acceptedOrder.setUser(user);
-        acceptedOrder.setRestaurant(restaurant);
-        acceptedOrder.setItems(List.of(item1, item2));
-
-        // Pending order
-        pendingOrder = new Order();
-        pendingOrder.setId(1000L);
-        pendingOrder.setStatus("PLACED");
-        pendingOrder.setUser(user);
-        pendingOrder.setRestaurant(restaurant);
-        pendingOrder.setItems(List.of(item1, item2));
-    }
-
     @Test
     void testInitiatePayment_Success() {
-        when(orderRepository.findById(acceptedOrder.getId())).thenReturn(Optional.of(acceptedOrder));
+        when(orderService.transitionStatus(999L, "ACCEPTED", "PAYMENT_SUCCESS")).thenReturn(true);
 
-        String result = paymentService.initiatePayment(acceptedOrder.getId());
+        String result = paymentService.initiatePayment(999L);
 
         assertEquals("Payment started for order", result);
-
-        // Verify that a PAYMENT_SUCCESS event was sent to Kafka
-        ArgumentCaptor<OrderEvent> captor = ArgumentCaptor.forClass(OrderEvent.class);
-        verify(kafkaTemplate, times(1)).send(eq("order-events"), captor.capture());
-
-        OrderEvent sentEvent = captor.getValue();
-        assertEquals("PAYMENT_SUCCESS", sentEvent.getStatus());
-        assertEquals(acceptedOrder.getId(), sentEvent.getOrderId());
-        assertEquals(user.getId(), sentEvent.getUserId());
-        assertEquals(restaurant.getId(), sentEvent.getRestaurantId());
-        assertEquals(List.of(item1.getId(), item2.getId()), sentEvent.getMenuItemIds());
+        // the transition itself writes the PAYMENT_SUCCESS event to the outbox
+        verify(orderService, times(1)).transitionStatus(999L, "ACCEPTED", "PAYMENT_SUCCESS");
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
     void testInitiatePayment_OrderNotFound() {
-        when(orderRepository.findById(999L)).thenReturn(Optional.empty());
+        when(orderService.transitionStatus(999L, "ACCEPTED", "PAYMENT_SUCCESS")).thenReturn(false);
+        when(orderRepository.existsById(999L)).thenReturn(false);
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () ->
                 paymentService.initiatePayment(999L));
 
         // Correct assertion
         assertTrue(ex.getMessage().contains("Order item not found with id: "+999));
-        verifyNoInteractions(kafkaTemplate);
     }
 
 
 
     @Test
     void testInitiatePayment_OrderNotAccepted() {
-        when(orderRepository.findById(pendingOrder.getId())).thenReturn(Optional.of(pendingOrder));
+        // still PLACED, or already paid by a duplicate submit
+        when(orderService.transitionStatus(1000L, "ACCEPTED", "PAYMENT_SUCCESS")).thenReturn(false);
+        when(orderRepository.existsById(1000L)).thenReturn(true);
 
-        Runnable action = () -> paymentService.initiatePayment(pendingOrder.getId());
+        Runnable action = () -> paymentService.initiatePayment(1000L);
         IllegalStateException ex = assertThrows(IllegalStateException.class, action::run);
 
         assertEquals("Payment can only be initiated for accepted orders.", ex.getMessage());
-        verifyNoInteractions(kafkaTemplate);
     }
 
 }
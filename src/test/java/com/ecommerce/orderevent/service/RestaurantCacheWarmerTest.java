@@ -0,0 +1,171 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.cache.CacheSnapshotFile;
+import com.ecommerce.orderevent.cache.CacheValueCodec;
+import com.ecommerce.orderevent.cache.RestaurantLocalCache;
+import com.ecommerce.orderevent.cache.RestaurantVersions;
+import com.ecommerce.orderevent.dtos.RestaurantResponseDto;
+import com.ecommerce.orderevent.entity.MenuItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantCacheWarmerTest {
+
+    @Mock
+    private RestaurantLocalCache restaurantLocalCache;
+    @Mock
+    private RestaurantVersions restaurantVersions;
+    @Mock
+    private RestaurantService restaurantService;
+    @Mock
+    private MenuItemService menuItemService;
+    @Mock
+    private RedisTemplate<String, byte[]> cacheRedisTemplate;
+    @Mock
+    private ValueOperations<String, byte[]> valueOps;
+    @Mock
+    private CacheValueCodec cacheValueCodec;
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Path snapshotPath;
+    private RestaurantCacheWarmer warmer;
+
+    @BeforeEach
+    void setUp() {
+        snapshotPath = directory.resolve("restaurant-cache.snapshot");
+        warmer = new RestaurantCacheWarmer(restaurantLocalCache, restaurantVersions, restaurantService, menuItemService,
+                cacheRedisTemplate, cacheValueCodec, meterRegistry, snapshotPath.toString(), 500, 2);
+        lenient().when(cacheRedisTemplate.opsForValue()).thenReturn(valueOps);
+        // stores whatever the version check lets through; RestaurantLocalCacheTest covers the eviction guard
+        lenient().when(restaurantLocalCache.putIfCurrent(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get() != null);
+    }
+
+    private static RestaurantResponseDto restaurant(Long id) {
+        RestaurantResponseDto dto = new RestaurantResponseDto();
+        dto.setId(id);
+        return dto;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    @Test
+    void testWriteSnapshot_HottestVersionedEntriesFromRedis() throws Exception {
+        Map<String, Object> hottest = new LinkedHashMap<>();
+        hottest.put("restaurant:1", restaurant(1L));
+        hottest.put("restaurant:menu:1", List.of());
+        hottest.put("menuitem:10", new MenuItem()); // not versioned
+        hottest.put("restaurant:all", List.of(restaurant(1L))); // patched in its Redis hash instead
+        hottest.put("restaurant:2", restaurant(2L)); // gone from Redis meanwhile
+        when(restaurantLocalCache.hottest(500)).thenReturn(hottest);
+        when(restaurantVersions.current(1L)).thenReturn("v1");
+        when(restaurantVersions.current(2L)).thenReturn("v2");
+        when(valueOps.get("restaurant:1")).thenReturn(new byte[]{1});
+        when(valueOps.get("restaurant:menu:1")).thenReturn(new byte[]{2});
+        when(valueOps.get("restaurant:2")).thenReturn(null);
+
+        warmer.writeSnapshot();
+
+        List<CacheSnapshotFile.Entry> entries = CacheSnapshotFile.read(snapshotPath).entries();
+        assertEquals(List.of("restaurant:1", "restaurant:menu:1"), entries.stream().map(CacheSnapshotFile.Entry::key).toList());
+        assertEquals("v1", entries.get(0).version());
+        verify(valueOps, never()).get("menuitem:10");
+        verify(valueOps, never()).get("restaurant:all");
+    }
+
+    @Test
+    void testWarmUp_FromSnapshot_OnlyCurrentVersions_ListFromItsHash() throws Exception {
+        CacheSnapshotFile.write(snapshotPath, new CacheSnapshotFile.Snapshot(1L, List.of(
+                new CacheSnapshotFile.Entry("restaurant:1", "v1", new byte[]{1}),
+                new CacheSnapshotFile.Entry("restaurant:menu:1", "v1", new byte[]{2}),
+                new CacheSnapshotFile.Entry("restaurant:2", "old", new byte[]{3}),
+                new CacheSnapshotFile.Entry("restaurant:all", "l1", new byte[]{4})))); // written before the list moved to a hash
+        when(restaurantVersions.current(1L)).thenReturn("v1");
+        when(restaurantVersions.current(2L)).thenReturn("new"); // written since the snapshot
+        RestaurantResponseDto cached = restaurant(1L);
+        when(cacheValueCodec.decode(new byte[]{1}, RestaurantResponseDto.class)).thenReturn(cached);
+        when(cacheValueCodec.decode(eq(new byte[]{2}), ArgumentMatchers.<TypeReference<List<MenuItem>>>any()))
+                .thenReturn(List.of(new MenuItem()));
+        when(restaurantService.getAllRestaurant()).thenReturn(List.of(cached));
+
+        warmer.warmUp();
+
+        verify(restaurantLocalCache).putIfCurrent(eq("restaurant:1"), argThat(value -> value.get() == cached));
+        verify(valueOps).setIfAbsent(eq("restaurant:1"), eq(new byte[]{1}), any(Duration.class));
+        verify(valueOps).setIfAbsent(eq("restaurant:menu:1"), eq(new byte[]{2}), any(Duration.class));
+        verify(valueOps, never()).setIfAbsent(eq("restaurant:all"), any(), any(Duration.class));
+        verify(valueOps, never()).setIfAbsent(eq("restaurant:2"), any(), any(Duration.class));
+        verify(restaurantService, times(1)).getAllRestaurant();
+        verify(restaurantService, never()).getRestaurantById(any());
+        verifyNoInteractions(menuItemService);
+        assertEquals(3, gauge("cache.warmup.entries"));
+        assertEquals(2, gauge("cache.warmup.skipped"));
+        assertEquals(1, meterRegistry.get("cache.warmup.duration").tag("source", "snapshot").timer().count());
+    }
+
+    @Test
+    void testWarmUp_FromSnapshot_RedisFillRacingAWriteIsDeleted() throws Exception {
+        CacheSnapshotFile.write(snapshotPath, new CacheSnapshotFile.Snapshot(1L, List.of(
+                new CacheSnapshotFile.Entry("restaurant:1", "v1", new byte[]{1}))));
+        when(restaurantVersions.current(1L)).thenReturn("v1", "v2"); // bumped after the check
+        when(cacheValueCodec.decode(new byte[]{1}, RestaurantResponseDto.class)).thenReturn(restaurant(1L));
+        when(valueOps.setIfAbsent(eq("restaurant:1"), any(), any(Duration.class))).thenReturn(true);
+
+        warmer.warmUp();
+
+        verify(cacheRedisTemplate).delete("restaurant:1");
+    }
+
+    @Test
+    void testWarmUp_NoSnapshot_BoundedPreloadThroughReadPaths() {
+        when(restaurantService.getAllRestaurant()).thenReturn(List.of(restaurant(1L), restaurant(2L), restaurant(3L)));
+
+        warmer.warmUp();
+
+        verify(restaurantService).getRestaurantById(1L);
+        verify(restaurantService).getRestaurantById(2L);
+        verify(restaurantService, never()).getRestaurantById(3L); // preload limit
+        verify(menuItemService).getMenuItemsByRestaurant(1L);
+        verify(menuItemService).getMenuItemsByRestaurant(2L);
+        assertEquals(5, gauge("cache.warmup.entries"));
+        assertEquals(1, meterRegistry.get("cache.warmup.duration").tag("source", "database").timer().count());
+    }
+
+    @Test
+    void testWarmUp_Failures_DoNotStopStartup() throws Exception {
+        Files.writeString(snapshotPath, "garbage");
+        when(restaurantService.getAllRestaurant()).thenThrow(new RuntimeException("db down"));
+
+        assertDoesNotThrow(() -> warmer.warmUp());
+
+        assertEquals(0, gauge("cache.warmup.entries"));
+        verifyNoInteractions(restaurantLocalCache);
+    }
+}
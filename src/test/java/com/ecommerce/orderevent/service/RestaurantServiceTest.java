@@ -1,24 +1,33 @@
 package com.ecommerce.orderevent.service;
 
+import com.ecommerce.orderevent.cache.CacheValueCodec;
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
+import com.ecommerce.orderevent.cache.RestaurantLocalCache;
+import com.ecommerce.orderevent.cache.RestaurantVersions;
 import com.ecommerce.orderevent.dtos.MenuItemRequestDto;
+import com.ecommerce.orderevent.dtos.MenuItemResponseDto;
 import com.ecommerce.orderevent.dtos.RestaurantRequestDto;
 import com.ecommerce.orderevent.dtos.RestaurantResponseDto;
 import com.ecommerce.orderevent.entity.MenuItem;
 import com.ecommerce.orderevent.entity.Restaurant;
 import com.ecommerce.orderevent.exception.ResourceNotFoundException;
+import com.ecommerce.orderevent.repository.RestaurantMenuRow;
 import com.ecommerce.orderevent.repository.RestaurantRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,18 +40,48 @@ class RestaurantServiceTest {
     private RedisTemplate<String, Object> redisTemplate;
 
     @Mock
-    private ValueOperations<String, Object> valueOps;
+    private RedisTemplate<String, byte[]> cacheRedisTemplate;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private ValueOperations<String, byte[]> valueOps;
+
+    @Mock
+    private HashOperations<String, String, byte[]> hashOps;
+
+    @Mock
+    private CacheValueCodec cacheValueCodec;
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+    @Mock
+    private RestaurantVersions restaurantVersions;
+    @Mock
+    private RestaurantLocalCache restaurantLocalCache;
 
-    @InjectMocks
     private RestaurantService restaurantService;
 
     @BeforeEach
     void setup() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        // two RedisTemplate mocks, so wired by hand rather than by type
+        restaurantService = new RestaurantService(restaurantRepository, redisTemplate, cacheRedisTemplate,
+                cacheValueCodec, referenceDataCache, restaurantVersions, restaurantLocalCache);
+        lenient().when(cacheRedisTemplate.opsForValue()).thenReturn(valueOps);
+        lenient().when(cacheRedisTemplate.<String, byte[]>opsForHash()).thenReturn(hashOps);
+        // local tier always misses here; RestaurantLocalCacheTest covers it
+        lenient().when(restaurantLocalCache.get(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    private static RestaurantMenuRow row(Long id, String name, Long menuItemId, String itemName, Double price) {
+        return new RestaurantMenuRow() {
+            public Long getId() { return id; }
+            public String getName() { return name; }
+            public String getAddress() { return null; }
+            public String getContact() { return null; }
+            public Long getMenuItemId() { return menuItemId; }
+            public String getMenuItemName() { return itemName; }
+            public String getMenuItemDescription() { return null; }
+            public Double getMenuItemPrice() { return price; }
+        };
     }
 
     @Test
@@ -77,108 +116,211 @@ class RestaurantServiceTest {
         assertEquals("Pizza Hut", result.getName());
         verify(restaurantRepository, times(1)).save(any(Restaurant.class));
         verify(redisTemplate, times(1)).delete("restaurant:all");
+        verify(restaurantVersions, times(1)).bump(1L);
+        verify(restaurantLocalCache, times(1)).evict("restaurant:1", "restaurant:all", "restaurant:menu:1");
+    }
+
+    private static RestaurantResponseDto restaurant(Long id, String name) {
+        RestaurantResponseDto dto = new RestaurantResponseDto();
+        dto.setId(id);
+        dto.setName(name);
+        return dto;
     }
 
     @Test
     void testGetAllRestaurant_CacheMiss() throws Exception {
-        String key = "restaurant:all";
-        when(valueOps.get(key)).thenReturn(null);
+        when(restaurantVersions.currentList()).thenReturn("v1");
 
-        Restaurant r1 = new Restaurant();
-        r1.setName("Pizza Hut");
-        Restaurant r2 = new Restaurant();
-        r2.setName("Domino’s");
-
-        when(restaurantRepository.findAll()).thenReturn(List.of(r1, r2));
-        when(objectMapper.writeValueAsString(any())).thenReturn("[{...}]");
+        // one row per menu item, restaurants without a menu come back once with null item columns
+        when(restaurantRepository.findAllMenuRows()).thenReturn(List.of(
+                row(1L, "Pizza Hut", 10L, "Pan Pizza", 300.0),
+                row(1L, "Pizza Hut", 11L, "Garlic Bread", 120.0),
+                row(2L, "Domino’s", null, null, null)));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{1});
 
         List<RestaurantResponseDto> result = restaurantService.getAllRestaurant();
 
         assertEquals(2, result.size());
         assertEquals("Pizza Hut", result.get(0).getName());
-        verify(valueOps, times(1)).set(eq(key), anyString(), anyLong(), eq(TimeUnit.MINUTES));
+        assertEquals(List.of("Pan Pizza", "Garlic Bread"),
+                result.get(0).getMenuItems().stream().map(MenuItemResponseDto::getName).toList());
+        assertEquals(1L, result.get(0).getMenuItems().get(0).getRestaurant().getId());
+        assertTrue(result.get(1).getMenuItems().isEmpty());
+        verify(restaurantRepository, never()).findAll();
+        verify(hashOps, times(1)).putAll(eq("restaurant:list"),
+                argThat(fields -> fields.keySet().equals(Set.of("1", "2", "complete"))));
+        verify(cacheRedisTemplate, times(1)).expire(eq("restaurant:list"), anyLong(), eq(TimeUnit.SECONDS));
+        verify(cacheRedisTemplate, never()).delete("restaurant:list");
+    }
+
+    @Test
+    void testGetAllRestaurant_ColdCacheIsOneQueryForAnyNumberOfRestaurants() throws Exception {
+        List<RestaurantMenuRow> rows = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) {
+            rows.add(row(id, "Restaurant " + id, id * 10, "Item", 100.0));
+            rows.add(row(id, "Restaurant " + id, id * 10 + 1, "Item", 100.0));
+        }
+        when(restaurantRepository.findAllMenuRows()).thenReturn(rows);
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{1});
+
+        List<RestaurantResponseDto> result = restaurantService.getAllRestaurant();
+
+        assertEquals(1_000, result.size());
+        assertEquals(2, result.get(999).getMenuItems().size());
+        verify(restaurantRepository, times(1)).findAllMenuRows();
+        verifyNoMoreInteractions(restaurantRepository);
+    }
+
+    @Test
+    void testGetAllRestaurant_WriteDuringRebuild_DropsTheHash() throws Exception {
+        when(restaurantVersions.currentList()).thenReturn("v1", "v2");
+        when(restaurantRepository.findAllMenuRows()).thenReturn(List.of(row(1L, "Subway", null, null, null)));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{1});
+
+        List<RestaurantResponseDto> result = restaurantService.getAllRestaurant();
+
+        assertEquals(1, result.size());
+        verify(cacheRedisTemplate, times(1)).delete("restaurant:list");
     }
 
     @Test
     void testGetAllRestaurant_CacheHit() throws Exception {
-        String key = "restaurant:all";
-        String cachedJson = """
-            [
-              {"id":1,"name":"Pizza Hut","contact":"123"},
-              {"id":2,"name":"Domino’s","contact":"456"}
-            ]
-            """;
-        when(valueOps.get(key)).thenReturn(cachedJson);
-
-        // Create DTOs manually using setters
-        RestaurantResponseDto dto1 = new RestaurantResponseDto();
-        dto1.setId(1L);
-        dto1.setName("Pizza Hut");
-        dto1.setContact("123");
-
-        RestaurantResponseDto dto2 = new RestaurantResponseDto();
-        dto2.setId(2L);
-        dto2.setName("Domino’s");
-        dto2.setContact("456");
-
-        when(objectMapper.readValue(eq(cachedJson),
-                ArgumentMatchers.<TypeReference<List<RestaurantResponseDto>>>any()))
-                .thenReturn(List.of(dto1, dto2));
+        byte[] first = {1};
+        byte[] second = {2};
+        Map<String, byte[]> fields = new HashMap<>();
+        fields.put("2", second);
+        fields.put("1", first);
+        fields.put("complete", new byte[0]);
+        when(hashOps.entries("restaurant:list")).thenReturn(fields);
+        when(cacheValueCodec.decode(first, RestaurantResponseDto.class)).thenReturn(restaurant(1L, "Pizza Hut"));
+        when(cacheValueCodec.decode(second, RestaurantResponseDto.class)).thenReturn(restaurant(2L, "Domino’s"));
 
         List<RestaurantResponseDto> result = restaurantService.getAllRestaurant();
-        // ✅ Assertions
-        assertNotNull(result);
+        // ✅ Assertions: one field per restaurant, back in id order
         assertEquals(2, result.size());
         assertEquals("Pizza Hut", result.get(0).getName());
         assertEquals("Domino’s", result.get(1).getName());
         // ✅ Verifications
-        verify(restaurantRepository, never()).findAll(); // no DB call
-        verify(valueOps, times(1)).get(key); // cache hit
+        verify(restaurantRepository, never()).findAllMenuRows(); // no DB call
+        verify(hashOps, never()).putAll(any(), any());
     }
 
     @Test
-    void testGetAllRestaurant_DeserializationFailure() throws Exception {
-        String key = "restaurant:all";
-        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
+    void testGetAllRestaurant_IncompleteHash_RebuiltFromDB() throws Exception {
+        // a restaurant field without the marker: the hash expired or was dropped while being patched
+        when(hashOps.entries("restaurant:list")).thenReturn(Map.of("1", new byte[]{1}));
+        when(restaurantVersions.currentList()).thenReturn("v1");
+        when(restaurantRepository.findAllMenuRows()).thenReturn(List.of(
+                row(1L, "Pizza Hut", null, null, null),
+                row(2L, "Subway", null, null, null)));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{1});
+
+        List<RestaurantResponseDto> result = restaurantService.getAllRestaurant();
 
-        String invalidJson = "{invalid json]";
-        when(valueOps.get(key)).thenReturn(invalidJson);
+        assertEquals(2, result.size());
+        verify(cacheValueCodec, never()).decode(any(byte[].class), eq(RestaurantResponseDto.class));
+        verify(hashOps, times(1)).putAll(eq("restaurant:list"), anyMap());
+    }
+
+    @Test
+    void testGetAllRestaurant_DeserializationFailure() throws Exception {
+        byte[] invalid = "{invalid json]".getBytes(StandardCharsets.UTF_8);
+        when(hashOps.entries("restaurant:list")).thenReturn(Map.of("1", invalid, "complete", new byte[0]));
 
         // simulate deserialization failure
-        when(objectMapper.readValue(eq(invalidJson), ArgumentMatchers.<TypeReference<List<RestaurantResponseDto>>>any()))
+        when(cacheValueCodec.decode(invalid, RestaurantResponseDto.class))
                 .thenThrow(new RuntimeException("JSON parse error"));
 
-        Restaurant restaurant = new Restaurant();
-        restaurant.setName("Fallback DB Restaurant");
-        when(restaurantRepository.findAll()).thenReturn(List.of(restaurant));
-        when(objectMapper.writeValueAsString(any())).thenReturn("[{...}]");
+        when(restaurantRepository.findAllMenuRows())
+                .thenReturn(List.of(row(1L, "Fallback DB Restaurant", null, null, null)));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{1});
 
         List<RestaurantResponseDto> result = restaurantService.getAllRestaurant();
 
         assertEquals(1, result.size());
         assertEquals("Fallback DB Restaurant", result.get(0).getName());
-        verify(restaurantRepository, times(1)).findAll(); // ✅ fallback to DB
+        verify(restaurantRepository, times(1)).findAllMenuRows(); // ✅ fallback to DB
     }
 
     @Test
     void testGetAllRestaurant_SerializationFailure() throws Exception {
-        String key = "restaurant:all";
-        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        when(valueOps.get(key)).thenReturn(null); // no cache
-
-        Restaurant r1 = new Restaurant();
-        r1.setName("Subway");
-        when(restaurantRepository.findAll()).thenReturn(List.of(r1));
+        when(restaurantRepository.findAllMenuRows()).thenReturn(List.of(row(1L, "Subway", null, null, null)));
 
         // Simulate serialization error
-        when(objectMapper.writeValueAsString(any())).thenThrow(new RuntimeException("Write error"));
+        when(cacheValueCodec.encode(any())).thenThrow(new RuntimeException("Write error"));
 
         List<RestaurantResponseDto> result = restaurantService.getAllRestaurant();
 
         assertEquals(1, result.size());
         assertEquals("Subway", result.get(0).getName());
-        verify(restaurantRepository, times(1)).findAll();
-        verify(valueOps, never()).set(any(), any(), anyLong(), any());
+        verify(restaurantRepository, times(1)).findAllMenuRows();
+        verify(hashOps, never()).putAll(any(), any());
+    }
+
+    @Test
+    void testRestaurantWrite_PatchesItsListEntry() throws Exception {
+        when(hashOps.hasKey("restaurant:list", "complete")).thenReturn(true);
+        when(restaurantVersions.current(1L)).thenReturn("v2");
+        when(restaurantRepository.findMenuRowsById(1L)).thenReturn(List.of(row(1L, "Renamed", 10L, "Pan Pizza", 300.0)));
+        byte[] encoded = {7};
+        when(cacheValueCodec.encode(argThat(dto -> dto instanceof RestaurantResponseDto r && r.getName().equals("Renamed"))))
+                .thenReturn(encoded);
+
+        restaurantService.evictCachedRestaurant(1L);
+
+        verify(hashOps, times(1)).put("restaurant:list", "1", encoded);
+        verify(restaurantRepository, never()).findAllMenuRows(); // the rest of the list stays cached
+        verify(cacheRedisTemplate, never()).delete("restaurant:list");
+        InOrder order = inOrder(redisTemplate, restaurantVersions, hashOps, restaurantLocalCache);
+        order.verify(redisTemplate).delete("restaurant:1");
+        order.verify(restaurantVersions).bump(1L);
+        // deleted again, for a fill that landed between the first delete and the bump
+        order.verify(redisTemplate).delete(List.of("restaurant:1", "restaurant:menu:1"));
+        order.verify(hashOps).put("restaurant:list", "1", encoded);
+        order.verify(restaurantLocalCache).evict("restaurant:1", "restaurant:all", "restaurant:menu:1");
+    }
+
+    @Test
+    void testRestaurantWrite_GoneFromDB_RemovesItsListEntry() {
+        when(hashOps.hasKey("restaurant:list", "complete")).thenReturn(true);
+        when(restaurantVersions.current(1L)).thenReturn("v2");
+        when(restaurantRepository.findMenuRowsById(1L)).thenReturn(List.of());
+
+        restaurantService.evictCachedRestaurant(1L);
+
+        verify(hashOps, times(1)).delete("restaurant:list", "1");
+        verify(hashOps, never()).put(any(), any(), any());
+    }
+
+    @Test
+    void testRestaurantWrite_NoCompleteList_NothingToPatch() {
+        restaurantService.evictCachedRestaurant(1L);
+
+        verify(restaurantRepository, never()).findMenuRowsById(any());
+        verify(hashOps, never()).put(any(), any(), any());
+    }
+
+    @Test
+    void testRestaurantWrite_ConcurrentWrite_DropsTheHash() throws Exception {
+        when(hashOps.hasKey("restaurant:list", "complete")).thenReturn(true);
+        when(restaurantVersions.current(1L)).thenReturn("v2", "v3");
+        when(restaurantRepository.findMenuRowsById(1L)).thenReturn(List.of(row(1L, "Renamed", null, null, null)));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{7});
+
+        restaurantService.evictCachedRestaurant(1L);
+
+        verify(cacheRedisTemplate, times(1)).delete("restaurant:list");
+    }
+
+    @Test
+    void testRestaurantWrite_PatchFailure_DropsTheHash() {
+        when(hashOps.hasKey("restaurant:list", "complete")).thenReturn(true);
+        when(restaurantRepository.findMenuRowsById(1L)).thenThrow(new RuntimeException("db down"));
+
+        restaurantService.evictCachedRestaurant(1L);
+
+        verify(cacheRedisTemplate, times(1)).delete("restaurant:list");
+        verify(restaurantLocalCache, times(1)).evict("restaurant:1", "restaurant:all", "restaurant:menu:1");
     }
 
     @Test
@@ -188,23 +330,48 @@ class RestaurantServiceTest {
 
         when(valueOps.get(key)).thenReturn(null);
 
-        Restaurant restaurant = new Restaurant();
-        restaurant.setId(id);
-        restaurant.setName("KFC");
-        when(restaurantRepository.findById(id)).thenReturn(Optional.of(restaurant));
-        when(objectMapper.writeValueAsString(any())).thenReturn("{...}");
+        when(restaurantRepository.findMenuRowsById(id)).thenReturn(List.of(row(id, "KFC", 20L, "Zinger", 180.0)));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{1});
 
         RestaurantResponseDto dto = restaurantService.getRestaurantById(id);
 
         assertEquals("KFC", dto.getName());
-        verify(valueOps, times(1)).set(eq(key), anyString(), anyLong(), eq(TimeUnit.MINUTES));
+        assertEquals(1, dto.getMenuItems().size());
+        verify(restaurantRepository, never()).findById(any());
+        verify(valueOps, times(1)).set(eq(key), any(byte[].class), anyLong(), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testGetRestaurantById_FillRacingAWriteIsDropped() throws Exception {
+        String key = "restaurant:1";
+        when(restaurantVersions.peek(1L)).thenReturn("v1", "v2"); // bumped while the row was loading
+        when(restaurantRepository.findMenuRowsById(1L)).thenReturn(List.of(row(1L, "KFC", null, null, null)));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{1});
+
+        assertEquals("KFC", restaurantService.getRestaurantById(1L).getName());
+
+        InOrder order = inOrder(valueOps, cacheRedisTemplate);
+        order.verify(valueOps).set(eq(key), any(byte[].class), anyLong(), eq(TimeUnit.SECONDS));
+        order.verify(cacheRedisTemplate).delete(key);
+    }
+
+    @Test
+    void testGetRestaurantById_UnchangedVersionKeepsFill() throws Exception {
+        when(restaurantVersions.peek(1L)).thenReturn("v1");
+        when(restaurantRepository.findMenuRowsById(1L)).thenReturn(List.of(row(1L, "KFC", null, null, null)));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{1});
+
+        restaurantService.getRestaurantById(1L);
+
+        verify(valueOps).set(eq("restaurant:1"), any(byte[].class), anyLong(), eq(TimeUnit.SECONDS));
+        verify(cacheRedisTemplate, never()).delete("restaurant:1");
     }
 
     @Test
     void testGetRestaurantById_NotFound() {
-        when(restaurantRepository.findById(99L)).thenReturn(Optional.empty());
+        when(restaurantRepository.findMenuRowsById(99L)).thenReturn(List.of());
         assertThrows(ResourceNotFoundException.class, () -> restaurantService.getRestaurantById(99L));
-        verify(restaurantRepository, times(1)).findById(99L);
+        verify(restaurantRepository, times(1)).findMenuRowsById(99L);
     }
 
     @Test
@@ -212,9 +379,9 @@ class RestaurantServiceTest {
         Long id = 1L;
         String key = "restaurant:" + id;
 
-        // Cached JSON stored in Redis
-        String cachedJson = "{\"id\":1,\"name\":\"McDonald's\",\"contact\":\"123\"}";
-        when(valueOps.get(key)).thenReturn(cachedJson);
+        // Cached value stored in Redis
+        byte[] cached = "{\"id\":1,\"name\":\"McDonald's\",\"contact\":\"123\"}".getBytes(StandardCharsets.UTF_8);
+        when(valueOps.get(key)).thenReturn(cached);
 
         // Mock successful JSON deserialization
         RestaurantResponseDto cachedDto = new RestaurantResponseDto();
@@ -222,7 +389,7 @@ class RestaurantServiceTest {
         cachedDto.setName("McDonald's");
         cachedDto.setContact("123");
 
-        when(objectMapper.readValue(eq(cachedJson), eq(RestaurantResponseDto.class))).thenReturn(cachedDto);
+        when(cacheValueCodec.decode(eq(cached), eq(RestaurantResponseDto.class))).thenReturn(cachedDto);
 
         // Execute
         RestaurantResponseDto result = restaurantService.getRestaurantById(id);
@@ -230,7 +397,7 @@ class RestaurantServiceTest {
         assertNotNull(result);
         assertEquals("McDonald's", result.getName());
         assertEquals("123", result.getContact());
-        verify(restaurantRepository, never()).findById(any()); // ✅ Should NOT hit DB
+        verify(restaurantRepository, never()).findMenuRowsById(any()); // ✅ Should NOT hit DB
         verify(valueOps, times(1)).get(key); // ✅ Reads from cache
     }
 
@@ -238,27 +405,24 @@ class RestaurantServiceTest {
     void testGetRestaurantById_DeserializationFailure() throws Exception {
         Long id = 5L;
         String key = "restaurant:" + id;
-        String corruptedJson = "{bad json}";
+        byte[] corruptedJson = "{bad json}".getBytes(StandardCharsets.UTF_8);
         when(valueOps.get(key)).thenReturn(corruptedJson);
 
         // Simulate Jackson failing to parse JSON
-        when(objectMapper.readValue(eq(corruptedJson), eq(RestaurantResponseDto.class)))
+        when(cacheValueCodec.decode(eq(corruptedJson), eq(RestaurantResponseDto.class)))
                 .thenThrow(new RuntimeException("JSON parse error"));
         // DB fallback
-        Restaurant restaurant = new Restaurant();
-        restaurant.setId(id);
-        restaurant.setName("Burger King");
-        when(restaurantRepository.findById(id)).thenReturn(Optional.of(restaurant));
-        when(objectMapper.writeValueAsString(any())).thenReturn("{...}");
+        when(restaurantRepository.findMenuRowsById(id)).thenReturn(List.of(row(id, "Burger King", null, null, null)));
+        when(cacheValueCodec.encode(any())).thenReturn(new byte[]{1});
 
         // Execute
         RestaurantResponseDto dto = restaurantService.getRestaurantById(id);
         // Verify
         assertNotNull(dto);
         assertEquals("Burger King", dto.getName());
-        verify(restaurantRepository, times(1)).findById(id); // ✅ Fallback used DB
+        verify(restaurantRepository, times(1)).findMenuRowsById(id); // ✅ Fallback used DB
         verify(valueOps, times(1)).get(key); // ✅ Attempted cache read
-        verify(valueOps, times(1)).set(eq(key), anyString(), anyLong(), eq(TimeUnit.MINUTES)); // ✅ Wrote fresh cache
+        verify(valueOps, times(1)).set(eq(key), any(byte[].class), anyLong(), eq(TimeUnit.SECONDS)); // ✅ Wrote fresh cache
     }
 
     @Test
@@ -267,7 +431,7 @@ class RestaurantServiceTest {
         Restaurant existing = new Restaurant();
         existing.setId(id);
         existing.setName("Old Restaurant");
-        when(restaurantRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(restaurantRepository.findWithMenuById(id)).thenReturn(Optional.of(existing));
 
         RestaurantRequestDto request = new RestaurantRequestDto();
         request.setName("New Restaurant");
@@ -283,6 +447,35 @@ class RestaurantServiceTest {
         assertEquals("New Restaurant", result.getName());
         verify(redisTemplate, times(1)).delete("restaurant:" + id);
         verify(redisTemplate, times(1)).delete("restaurant:all");
+        verify(restaurantVersions, times(1)).bump(id);
+        verify(restaurantLocalCache, times(1)).evict("restaurant:" + id, "restaurant:all", "restaurant:menu:" + id);
+        // menu untouched, items still valid
+        verify(redisTemplate, never()).delete(argThat((Collection<String> keys) -> keys.stream().anyMatch(key -> key.startsWith("menuitem:"))));
+    }
+
+    @Test
+    void testUpdateRestaurant_ReplacedMenu_EvictsOldItems() {
+        Long id = 1L;
+        Restaurant existing = new Restaurant();
+        existing.setId(id);
+        MenuItem oldItem = new MenuItem();
+        oldItem.setId(10L);
+        MenuItem otherOldItem = new MenuItem();
+        otherOldItem.setId(11L);
+        existing.setMenuItems(List.of(oldItem, otherOldItem));
+        when(restaurantRepository.findWithMenuById(id)).thenReturn(Optional.of(existing));
+        when(restaurantRepository.save(any(Restaurant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MenuItemRequestDto newItem = new MenuItemRequestDto();
+        newItem.setName("Soup");
+        RestaurantRequestDto request = new RestaurantRequestDto();
+        request.setName("Same Place");
+        request.setMenuItems(List.of(newItem));
+
+        restaurantService.updateRestaurant(id, request);
+
+        verify(redisTemplate, times(1)).delete(List.of("menuitem:10", "menuitem:11"));
+        verify(restaurantLocalCache, times(1)).evict("menuitem:10", "menuitem:11");
     }
 
     @Test
@@ -290,7 +483,7 @@ class RestaurantServiceTest {
         Long id = 99L;
 
         // Mock repository to return empty Optional (no restaurant found)
-        when(restaurantRepository.findById(id)).thenReturn(Optional.empty());
+        when(restaurantRepository.findWithMenuById(id)).thenReturn(Optional.empty());
 
         // Prepare a dummy request DTO
         RestaurantRequestDto request = new RestaurantRequestDto();
@@ -306,10 +499,12 @@ class RestaurantServiceTest {
         // ✅ Assert exception message
         assertEquals("Restaurant not found with id: " + id, exception.getMessage());
         // ✅ Verify no DB save and no cache deletion happened
-        verify(restaurantRepository, times(1)).findById(id);
+        verify(restaurantRepository, times(1)).findWithMenuById(id);
         verify(restaurantRepository, never()).save(any(Restaurant.class));
         verify(redisTemplate, never()).delete("restaurant:" + id);
         verify(redisTemplate, never()).delete("restaurant:all");
+        verifyNoInteractions(restaurantLocalCache);
+        verifyNoInteractions(restaurantVersions);
     }
 
     @Test
@@ -320,7 +515,7 @@ class RestaurantServiceTest {
         existing.setId(id);
         existing.setName("Old Name");
 
-        when(restaurantRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(restaurantRepository.findWithMenuById(id)).thenReturn(Optional.of(existing));
         // Incoming request DTO with menu items
         RestaurantRequestDto requestDto = new RestaurantRequestDto();
         requestDto.setName("Updated Restaurant");
@@ -372,16 +567,68 @@ class RestaurantServiceTest {
 
     @Test
     void testDeleteRestaurant_Success() {
-        when(restaurantRepository.existsById(1L)).thenReturn(true);
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(1L);
+        MenuItem item = new MenuItem();
+        item.setId(10L);
+        restaurant.setMenuItems(List.of(item));
+        when(restaurantRepository.findWithMenuById(1L)).thenReturn(Optional.of(restaurant));
         doNothing().when(restaurantRepository).deleteById(1L);
         restaurantService.deleteRestaurant(1L);
         verify(redisTemplate).delete("restaurant:1");
         verify(redisTemplate).delete("restaurant:all");
+        verify(redisTemplate).delete("restaurant:menu:1");
+        verify(redisTemplate).delete(List.of("menuitem:10"));
+        verify(referenceDataCache).evictRestaurant(1L);
+        verify(restaurantLocalCache).evict("restaurant:1", "restaurant:all", "restaurant:menu:1");
+        verify(restaurantLocalCache).evict("menuitem:10");
+        // the list moves on, the restaurant's own version goes so its ETag is null from now on
+        InOrder versions = inOrder(restaurantVersions);
+        versions.verify(restaurantVersions).bump(1L);
+        versions.verify(restaurantVersions).remove(1L);
+    }
+
+    @Test
+    void testETags_QuotedPerResourceFromVersion() {
+        when(restaurantVersions.peek(1L)).thenReturn("abc");
+        when(restaurantVersions.currentList()).thenReturn("xyz");
+
+        assertEquals("\"restaurant-1-abc\"", restaurantService.restaurantETag(1L));
+        assertEquals("\"menu-1-abc\"", restaurantService.menuETag(1L));
+        assertEquals("\"restaurants-xyz\"", restaurantService.restaurantListETag());
+        verifyNoInteractions(restaurantRepository, cacheValueCodec);
+    }
+
+    @Test
+    void testETags_NoVersionNoETag() {
+        when(restaurantVersions.peek(1L)).thenReturn(null);
+
+        assertNull(restaurantService.restaurantETag(1L));
+        verify(restaurantVersions, never()).current(anyLong());
+    }
+
+    @Test
+    void testEnsureRestaurantVersion_CreatesVersion() {
+        restaurantService.ensureRestaurantVersion(1L);
+
+        verify(restaurantVersions).current(1L);
     }
 
     @Test
     void testDeleteRestaurant_NotFound() {
-        when(restaurantRepository.existsById(1L)).thenReturn(false);
+        when(restaurantRepository.findWithMenuById(1L)).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class, () -> restaurantService.deleteRestaurant(1L));
+        verify(restaurantRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void testJitteredTtl_StaysWithinTenPercent() {
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            long ttl = RestaurantService.jitteredTtlSeconds(5);
+            assertTrue(ttl >= 270 && ttl <= 330, "ttl " + ttl);
+            seen.add(ttl);
+        }
+        assertTrue(seen.size() > 1);
     }
-}
\ No newline at end of file
+}
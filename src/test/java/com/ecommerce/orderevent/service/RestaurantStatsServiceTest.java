@@ -0,0 +1,237 @@
+package com.ecommerce.orderevent.service;
+
+import com.ecommerce.orderevent.cache.ReferenceDataCache;
+import com.ecommerce.orderevent.dtos.OrderLineDto;
+import com.ecommerce.orderevent.dtos.RestaurantStatsDto;
+import com.ecommerce.orderevent.entity.RestaurantDailyStats;
+import com.ecommerce.orderevent.exception.ResourceNotFoundException;
+import com.ecommerce.orderevent.models.OrderEvent;
+import com.ecommerce.orderevent.repository.RestaurantDailyStatsRepository;
+import com.ecommerce.orderevent.repository.RestaurantStatsEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantStatsServiceTest {
+
+    @Mock
+    private RestaurantDailyStatsRepository statsRepository;
+
+    @Mock
+    private RestaurantStatsEventRepository statsEventRepository;
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private RestaurantStatsService restaurantStatsService;
+
+    @BeforeEach
+    void setUp() {
+        restaurantStatsService = new RestaurantStatsService(statsRepository, statsEventRepository, referenceDataCache, transactionManager, 7);
+        lenient().when(statsEventRepository.markCounted(anyLong(), anyString(), any())).thenReturn(1);
+    }
+
+    private static OrderEvent event(Long orderId, String status, double totalPrice, int... quantities) {
+        return event(orderId, status, LocalDateTime.now(), totalPrice, quantities);
+    }
+
+    private static OrderEvent event(Long orderId, String status, LocalDateTime occurredAt, double totalPrice, int... quantities) {
+        List<OrderLineDto> lines = Arrays.stream(quantities)
+                .mapToObj(q -> new OrderLineDto(1L, "Pizza", 10.0, q))
+                .toList();
+        return new OrderEvent(orderId, 7L, 1L, List.of(1L), status, lines, totalPrice, occurredAt);
+    }
+
+    private void consume(OrderEvent event) {
+        restaurantStatsService.consume(event, null, acknowledgment);
+    }
+
+    private void restaurantExists(Long id) {
+        when(referenceDataCache.getRestaurant(id))
+                .thenReturn(Optional.of(new ReferenceDataCache.RestaurantRef(id, "Pizza Place", "Main St", "123")));
+    }
+
+    @Test
+    void testFlush_UpsertsOneDeltaPerRestaurant() {
+        consume(event(1L, "PLACED", 20.0, 2));
+        consume(event(2L, "PLACED", 40.0, 1, 3));
+        consume(event(1L, "ACCEPTED", 20.0, 2));
+        consume(event(1L, "PAYMENT_SUCCESS", 20.0, 2));
+
+        restaurantStatsService.flush();
+
+        verify(statsRepository, times(1)).addDeltas(1L, LocalDate.now(), 2, 1, 0, 1, 6, 60.0, 20.0);
+        verifyNoMoreInteractions(statsRepository);
+    }
+
+    @Test
+    void testFlush_NothingPending_NoWrites() {
+        restaurantStatsService.flush();
+
+        verifyNoInteractions(statsRepository);
+    }
+
+    @Test
+    void testFlush_DeltasAreResetAfterFlush() {
+        consume(event(1L, "REJECTED", 20.0, 1));
+        restaurantStatsService.flush();
+        restaurantStatsService.flush();
+
+        verify(statsRepository, times(1)).addDeltas(eq(1L), any(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testFlush_Failure_KeepsDeltasForNextRun() {
+        consume(event(1L, "PLACED", 20.0, 2));
+        doThrow(new DataAccessResourceFailureException("db down")).doNothing()
+                .when(statsRepository).addDeltas(any(), any(), anyLong(), anyLong(), anyLong(), anyLong(),
+                        anyLong(), anyDouble(), anyDouble());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> restaurantStatsService.flush());
+        consume(event(2L, "PLACED", 30.0, 1));
+        restaurantStatsService.flush();
+
+        verify(statsRepository).addDeltas(1L, LocalDate.now(), 2, 0, 0, 0, 3, 50.0, 0.0);
+    }
+
+    @Test
+    void testFlush_AcknowledgesOffsetsOnlyOnceStored() {
+        consume(event(1L, "PLACED", 20.0, 2));
+        verify(acknowledgment, never()).acknowledge();
+
+        doThrow(new DataAccessResourceFailureException("db down")).doNothing()
+                .when(statsRepository).addDeltas(any(), any(), anyLong(), anyLong(), anyLong(), anyLong(),
+                        anyLong(), anyDouble(), anyDouble());
+        assertThrows(DataAccessResourceFailureException.class, () -> restaurantStatsService.flush());
+        verify(acknowledgment, never()).acknowledge();
+
+        restaurantStatsService.flush();
+        verify(acknowledgment, times(1)).acknowledge();
+    }
+
+    @Test
+    void testFlush_FailedCommit_KeepsEventsUnacknowledged() {
+        consume(event(1L, "PLACED", 20.0, 2));
+        doThrow(new TransactionSystemException("commit failed")).doNothing().when(transactionManager).commit(any());
+
+        assertThrows(TransactionSystemException.class, () -> restaurantStatsService.flush());
+        verify(acknowledgment, never()).acknowledge();
+
+        restaurantStatsService.flush();
+        verify(statsRepository, times(2)).addDeltas(1L, LocalDate.now(), 1, 0, 0, 0, 2, 20.0, 0.0);
+        verify(acknowledgment, times(1)).acknowledge();
+    }
+
+    @Test
+    void testFlush_RedeliveredOrReplayedEvent_CountedOnce() {
+        when(statsEventRepository.markCounted(5L, "PLACED", LocalDate.now())).thenReturn(1, 0);
+        consume(event(5L, "PLACED", 20.0, 2));
+        consume(event(5L, "PLACED", 20.0, 2)); // redelivered before the flush
+        restaurantStatsService.flush();
+        consume(event(5L, "PLACED", 20.0, 2)); // replayed after it
+        restaurantStatsService.flush();
+
+        verify(statsEventRepository, times(2)).markCounted(5L, "PLACED", LocalDate.now());
+        verify(statsRepository, times(1)).addDeltas(1L, LocalDate.now(), 1, 0, 0, 0, 2, 20.0, 0.0);
+        verifyNoMoreInteractions(statsRepository);
+    }
+
+    @Test
+    void testConsume_BucketsByEventTimeNotConsumeTime() {
+        LocalDateTime lastNight = LocalDate.now().minusDays(1).atTime(23, 59);
+        consume(event(5L, "PLACED", lastNight, 20.0, 1));
+        // an older producer's event: the record timestamp stands in for the event time
+        OrderEvent untimed = event(6L, "PLACED", null, 30.0, 1);
+        restaurantStatsService.consume(untimed, lastNight.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), acknowledgment);
+
+        restaurantStatsService.flush();
+
+        verify(statsRepository).addDeltas(1L, LocalDate.now().minusDays(1), 2, 0, 0, 0, 2, 50.0, 0.0);
+        verifyNoMoreInteractions(statsRepository);
+    }
+
+    @Test
+    void testConsume_OlderThanDedupRetention_Ignored() {
+        consume(event(5L, "PLACED", LocalDateTime.now().minusDays(30), 20.0, 1));
+
+        restaurantStatsService.flush();
+
+        verifyNoInteractions(statsEventRepository, statsRepository);
+    }
+
+    @Test
+    void testPurge_DropsMarksOlderThanRetention() {
+        restaurantStatsService.purgeCountedEvents();
+
+        verify(statsEventRepository).deleteCountedBefore(LocalDate.now().minusDays(7));
+    }
+
+    @Test
+    void testGetStats_AddsUnflushedDeltaToStoredRow() {
+        restaurantExists(1L);
+        RestaurantDailyStats stored = new RestaurantDailyStats();
+        stored.setRestaurantId(1L);
+        stored.setStatDate(LocalDate.now());
+        stored.setPlaced(3);
+        stored.setPaid(2);
+        stored.setItemCount(5);
+        stored.setPlacedValue(90.0);
+        stored.setRevenue(60.0);
+        when(statsRepository.findById(new RestaurantDailyStats.Key(1L, LocalDate.now()))).thenReturn(Optional.of(stored));
+        consume(event(4L, "PLACED", 30.0, 3));
+
+        RestaurantStatsDto stats = restaurantStatsService.getStats(1L);
+
+        assertEquals(4L, stats.getOrdersByStatus().get("PLACED"));
+        assertEquals(2L, stats.getOrdersByStatus().get("PAYMENT_SUCCESS"));
+        assertEquals(0L, stats.getOrdersByStatus().get("REJECTED"));
+        assertEquals(60.0, stats.getRevenue());
+        assertEquals(2.0, stats.getAverageBasketSize());
+        assertEquals(30.0, stats.getAverageOrderValue());
+    }
+
+    @Test
+    void testGetStats_NoOrdersToday_ReturnsZeros() {
+        restaurantExists(1L);
+        when(statsRepository.findById(any())).thenReturn(Optional.empty());
+
+        RestaurantStatsDto stats = restaurantStatsService.getStats(1L);
+
+        assertEquals(0L, stats.getOrdersByStatus().get("PLACED"));
+        assertEquals(0.0, stats.getRevenue());
+        assertEquals(0.0, stats.getAverageBasketSize());
+    }
+
+    @Test
+    void testGetStats_RestaurantNotFound() {
+        when(referenceDataCache.getRestaurant(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> restaurantStatsService.getStats(99L));
+        verifyNoInteractions(statsRepository);
+    }
+}